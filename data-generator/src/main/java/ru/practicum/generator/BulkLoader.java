@@ -0,0 +1,115 @@
+package ru.practicum.generator;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class BulkLoader implements AutoCloseable {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int COPY_BUFFER = 1 << 20;
+
+    private final Connection connection;
+    private final String table;
+    private final int batchSize;
+    private final CopyIn copyIn;
+    private final PreparedStatement statement;
+    private final StringBuilder buffer = new StringBuilder(COPY_BUFFER);
+    private int pending;
+    private long rows;
+
+    public BulkLoader(Connection connection, String table, String[] columns, int batchSize) throws SQLException {
+        this.connection = connection;
+        this.table = table;
+        this.batchSize = batchSize;
+        String columnList = String.join(", ", columns);
+        if (connection.isWrapperFor(PGConnection.class)) {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)");
+            this.statement = null;
+        } else {
+            this.copyIn = null;
+            this.statement = connection.prepareStatement("INSERT INTO " + table + " (" + columnList + ") VALUES (" +
+                    "?, ".repeat(columns.length - 1) + "?)");
+        }
+    }
+
+    public void add(Object... values) throws SQLException {
+        if (copyIn != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                appendCsv(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER) {
+                flushCopy();
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i] instanceof LocalDateTime
+                        ? Timestamp.valueOf((LocalDateTime) values[i]) : values[i]);
+            }
+            statement.addBatch();
+            if (++pending == batchSize) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (copyIn != null) {
+            flushCopy();
+            copyIn.endCopy();
+        } else {
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+            statement.close();
+        }
+        connection.commit();
+    }
+
+    private void flushCopy() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void appendCsv(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String) {
+            buffer.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+        } else if (value instanceof LocalDateTime) {
+            buffer.append(((LocalDateTime) value).format(TIMESTAMP));
+        } else if (value instanceof byte[]) {
+            buffer.append("\\x");
+            for (byte b : (byte[]) value) {
+                buffer.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        } else {
+            buffer.append(value);
+        }
+    }
+}
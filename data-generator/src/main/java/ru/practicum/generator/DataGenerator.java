@@ -0,0 +1,53 @@
+package ru.practicum.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataGenerator implements ApplicationRunner {
+    private final Environment environment;
+    private final ServerDataGenerator serverDataGenerator;
+    private final StatsDataGenerator statsDataGenerator;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        long seed = environment.getRequiredProperty("generator.seed", Long.class);
+        boolean truncate = environment.getRequiredProperty("generator.truncate", Boolean.class);
+        List<String> targets = Arrays.asList(environment.getRequiredProperty("generator.targets", String[].class));
+        if (targets.contains("server")) {
+            long started = System.nanoTime();
+            try (Connection connection = connect("server")) {
+                serverDataGenerator.generate(connection, new Random(seed), truncate);
+            }
+            log.info("Generated server data in {} ms", (System.nanoTime() - started) / 1_000_000);
+        }
+        if (targets.contains("stats")) {
+            long started = System.nanoTime();
+            try (Connection connection = connect("stats")) {
+                statsDataGenerator.generate(connection, new Random(seed + 1), truncate);
+            }
+            log.info("Generated stats data in {} ms", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private Connection connect(String target) throws SQLException {
+        String prefix = "generator." + target + ".";
+        Connection connection = DriverManager.getConnection(environment.getRequiredProperty(prefix + "url"),
+                environment.getRequiredProperty(prefix + "user"), environment.getRequiredProperty(prefix + "password"));
+        connection.setAutoCommit(false);
+        return connection;
+    }
+}
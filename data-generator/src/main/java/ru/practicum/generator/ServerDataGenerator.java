@@ -0,0 +1,177 @@
+package ru.practicum.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.workload.Popularity;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+@Slf4j
+@Component
+public class ServerDataGenerator {
+    private static final String[] WORDS = ("concert festival lecture workshop meetup exhibition tour party " +
+            "theatre cinema music jazz rock classic art science city park river night summer winter open " +
+            "free family kids sport marathon yoga food wine coffee books games tech startup talk").split(" ");
+    private static final String[] EVENT_STATES = {"PUBLISHED", "PENDING", "CANCELED"};
+    private static final double[] EVENT_STATE_WEIGHTS = {0.8, 0.15, 0.05};
+    private static final String[] REQUEST_STATUSES = {"CONFIRMED", "PENDING", "REJECTED", "CANCELED"};
+    private static final double[] REQUEST_STATUS_WEIGHTS = {0.6, 0.25, 0.1, 0.05};
+
+    private final int users;
+    private final int categories;
+    private final int events;
+    private final int requests;
+    private final int comments;
+    private final int compilations;
+    private final int compilationSize;
+    private final double skew;
+    private final int days;
+    private final int batchSize;
+
+    public ServerDataGenerator(@Value("${generator.users}") int users,
+                               @Value("${generator.categories}") int categories,
+                               @Value("${generator.events}") int events,
+                               @Value("${generator.requests}") int requests,
+                               @Value("${generator.comments}") int comments,
+                               @Value("${generator.compilations}") int compilations,
+                               @Value("${generator.compilation-size}") int compilationSize,
+                               @Value("${generator.skew}") double skew,
+                               @Value("${generator.days}") int days,
+                               @Value("${generator.batch-size}") int batchSize) {
+        this.users = users;
+        this.categories = categories;
+        this.events = events;
+        this.requests = requests;
+        this.comments = comments;
+        this.compilations = compilations;
+        this.compilationSize = compilationSize;
+        this.skew = skew;
+        this.days = days;
+        this.batchSize = batchSize;
+    }
+
+    public void generate(Connection connection, Random random, boolean truncate) throws SQLException {
+        if (truncate) {
+            Tables.truncate(connection, "reports", "comments", "event_compilations", "compilations", "requests",
+                    "events", "categories", "users");
+        }
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Popularity eventPopularity = new Popularity(events, skew);
+        Popularity userPopularity = new Popularity(users, skew);
+
+        try (BulkLoader loader = loader(connection, "users", "user_id", "email", "name", "are_comments_blocked")) {
+            for (int id = 1; id <= users; id++) {
+                loader.add(id, "user" + id + "@example.com", "User " + id, random.nextDouble() < 0.01);
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "categories", "category_id", "name")) {
+            for (int id = 1; id <= categories; id++) {
+                loader.add(id, "Category " + id);
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "events", "event_id", "annotation", "category_id",
+                "description", "event_date", "lat", "lon", "paid", "participant_limit", "request_moderation",
+                "title", "confirmed_requests", "created_on", "initiator", "published_on", "state", "views")) {
+            for (int id = 1; id <= events; id++) {
+                LocalDateTime createdOn = now.minusSeconds((long) (random.nextDouble() * days * 86400L));
+                String state = pick(random, EVENT_STATES, EVENT_STATE_WEIGHTS);
+                loader.add(id, text(random, 20, 200), random.nextInt(categories) + 1, text(random, 50, 1000),
+                        createdOn.plusHours(2 + random.nextInt(24 * 60)),
+                        (float) (55 + random.nextDouble() * 5), (float) (37 + random.nextDouble() * 5),
+                        random.nextDouble() < 0.3, random.nextDouble() < 0.5 ? 0 : 10 + random.nextInt(490),
+                        random.nextDouble() < 0.7, text(random, 3, 120), 0, createdOn,
+                        userPopularity.sample(random),
+                        "PUBLISHED".equals(state) ? createdOn.plusMinutes(random.nextInt(24 * 60)) : null,
+                        state, 0);
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "requests", "request_id", "created", "event_id",
+                "requester_id", "status")) {
+            long id = 0;
+            for (int rank = 0; rank < events && id < requests; rank++) {
+                int count = (int) Math.min(users, Math.round(requests * eventPopularity.probability(rank)
+                        + random.nextDouble() - 0.5));
+                int event = eventPopularity.id(rank);
+                int firstRequester = random.nextInt(users);
+                for (int i = 0; i < count && id < requests; i++) {
+                    loader.add(++id, now.minusSeconds((long) (random.nextDouble() * days * 86400L)), event,
+                            (firstRequester + i) % users + 1, pick(random, REQUEST_STATUSES, REQUEST_STATUS_WEIGHTS));
+                }
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "comments", "comment_id", "text", "state", "created",
+                "author_id", "event_id")) {
+            for (int id = 1; id <= comments; id++) {
+                loader.add(id, text(random, 5, 500), random.nextDouble() < 0.1 ? "EDITED" : "NOT_EDIT",
+                        now.minusSeconds((long) (random.nextDouble() * days * 86400L)),
+                        userPopularity.sample(random), eventPopularity.sample(random));
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "compilations", "compilation_id", "pinned", "title")) {
+            for (int id = 1; id <= compilations; id++) {
+                loader.add(id, random.nextDouble() < 0.1, text(random, 2, 50));
+            }
+            report(loader);
+        }
+        try (BulkLoader loader = loader(connection, "event_compilations", "compilation_id", "event_id")) {
+            int size = Math.min(compilationSize, events);
+            for (int id = 1; id <= compilations; id++) {
+                int first = random.nextInt(events);
+                for (int i = 0; i < size; i++) {
+                    loader.add(id, (first + i) % events + 1);
+                }
+            }
+            report(loader);
+        }
+
+        Tables.execute(connection, "UPDATE events SET confirmed_requests = (SELECT COUNT(*) FROM requests r " +
+                "WHERE r.event_id = events.event_id AND r.status = 'CONFIRMED')");
+        Tables.restartIdentity(connection, "users", "user_id");
+        Tables.restartIdentity(connection, "categories", "category_id");
+        Tables.restartIdentity(connection, "events", "event_id");
+        Tables.restartIdentity(connection, "requests", "request_id");
+        Tables.restartIdentity(connection, "comments", "comment_id");
+        Tables.restartIdentity(connection, "compilations", "compilation_id");
+    }
+
+    private BulkLoader loader(Connection connection, String table, String... columns) throws SQLException {
+        return new BulkLoader(connection, table, columns, batchSize);
+    }
+
+    private static void report(BulkLoader loader) {
+        log.info("Loaded {} rows into {}", loader.getRows(), loader.getTable());
+    }
+
+    private static String text(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(length);
+        return text.toString().trim().isEmpty() ? WORDS[0] : text.toString();
+    }
+
+    private static String pick(Random random, String[] values, double[] weights) {
+        double point = random.nextDouble();
+        for (int i = 0; i < values.length - 1; i++) {
+            point -= weights[i];
+            if (point < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
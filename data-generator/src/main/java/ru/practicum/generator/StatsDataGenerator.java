@@ -0,0 +1,112 @@
+package ru.practicum.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.workload.Popularity;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+@Slf4j
+@Component
+public class StatsDataGenerator {
+    private static final String APP = "ewm-server";
+    private static final String EVENTS_URI = "/events";
+    private static final double EVENTS_URI_SHARE = 0.1;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final int events;
+    private final long hits;
+    private final int visitors;
+    private final double skew;
+    private final int days;
+    private final int batchSize;
+
+    public StatsDataGenerator(@Value("${generator.events}") int events,
+                              @Value("${generator.hits}") long hits,
+                              @Value("${generator.visitors}") int visitors,
+                              @Value("${generator.skew}") double skew,
+                              @Value("${generator.days}") int days,
+                              @Value("${generator.batch-size}") int batchSize) {
+        this.events = events;
+        this.hits = hits;
+        this.visitors = visitors;
+        this.skew = skew;
+        this.days = days;
+        this.batchSize = batchSize;
+    }
+
+    public void generate(Connection connection, Random random, boolean truncate) throws SQLException {
+        if (truncate) {
+            Tables.truncate(connection, "endpoint_hits_hll", "endpoint_hits_hour", "endpoint_hits_minute",
+                    "endpoint_hits", "endpoint_uris", "endpoint_apps");
+        }
+        LocalDateTime end = LocalDateTime.now().withNano(0);
+        LocalDateTime start = end.minusDays(days);
+        if (isPartitioned(connection)) {
+            createPartitions(connection, YearMonth.from(start), YearMonth.from(end));
+        }
+
+        try (BulkLoader loader = new BulkLoader(connection, "endpoint_apps", new String[]{"id", "name"},
+                batchSize)) {
+            loader.add(1, APP);
+            log.info("Loaded {} rows into {}", loader.getRows(), loader.getTable());
+        }
+        try (BulkLoader loader = new BulkLoader(connection, "endpoint_uris", new String[]{"id", "uri"},
+                batchSize)) {
+            loader.add(1, EVENTS_URI);
+            for (int event = 1; event <= events; event++) {
+                loader.add(event + 1, EVENTS_URI + "/" + event);
+            }
+            log.info("Loaded {} rows into {}", loader.getRows(), loader.getTable());
+        }
+        Tables.restartIdentity(connection, "endpoint_apps", "id");
+        Tables.restartIdentity(connection, "endpoint_uris", "id");
+
+        Popularity popularity = new Popularity(events, skew);
+        double secondsPerHit = (double) days * 86400 / Math.max(1, hits);
+        try (BulkLoader loader = new BulkLoader(connection, "endpoint_hits",
+                new String[]{"app_id", "uri_id", "ip", "timestamp"}, batchSize)) {
+            for (long i = 0; i < hits; i++) {
+                int uriId = random.nextDouble() < EVENTS_URI_SHARE ? 1 : popularity.sample(random) + 1;
+                int visitor = random.nextInt(visitors);
+                byte[] ip = {10, (byte) (visitor >>> 16), (byte) (visitor >>> 8), (byte) visitor};
+                loader.add(1, uriId, ip, start.plusSeconds((long) (i * secondsPerHit)));
+                if ((i + 1) % 1_000_000 == 0) {
+                    log.info("Generated {} of {} hits", i + 1, hits);
+                }
+            }
+            log.info("Loaded {} rows into {}", loader.getRows(), loader.getTable());
+        }
+    }
+
+    private static boolean isPartitioned(Connection connection) throws SQLException {
+        if (!Tables.isPostgres(connection)) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM pg_partitioned_table " +
+                     "WHERE partrelid = 'endpoint_hits'::regclass")) {
+            result.next();
+            return result.getLong(1) > 0;
+        }
+    }
+
+    private static void createPartitions(Connection connection, YearMonth first, YearMonth last)
+            throws SQLException {
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            Tables.execute(connection, "CREATE TABLE IF NOT EXISTS endpoint_hits_p" + month.format(PARTITION_SUFFIX) +
+                    " PARTITION OF endpoint_hits FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+}
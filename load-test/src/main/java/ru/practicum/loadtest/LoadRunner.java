@@ -0,0 +1,175 @@
+package ru.practicum.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class LoadRunner implements ApplicationRunner {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final URI baseUrl;
+    private final RequestMix mix;
+    private final Workload workload;
+    private final int[] concurrencySteps;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration requestTimeout;
+    private final long seed;
+    private final Path outputDir;
+    private final HttpClient client;
+
+    public LoadRunner(@Value("${loadtest.base-url}") String baseUrl,
+                      @Value("${loadtest.mix}") String mix,
+                      @Value("${loadtest.postman-collection:}") String postmanCollection,
+                      @Value("${loadtest.users}") int users,
+                      @Value("${loadtest.events}") int events,
+                      @Value("${loadtest.categories}") int categories,
+                      @Value("${loadtest.skew}") double skew,
+                      @Value("${loadtest.concurrency}") int[] concurrencySteps,
+                      @Value("${loadtest.rate}") double rate,
+                      @Value("${loadtest.warmup}") Duration warmup,
+                      @Value("${loadtest.duration}") Duration duration,
+                      @Value("${loadtest.request-timeout}") Duration requestTimeout,
+                      @Value("${loadtest.seed}") long seed,
+                      @Value("${loadtest.output-dir}") String outputDir) throws IOException {
+        this.baseUrl = URI.create(baseUrl);
+        this.mix = postmanCollection.isBlank() ? RequestMix.parse(mix)
+                : RequestMix.fromPostman(Paths.get(postmanCollection));
+        this.workload = new Workload(users, events, categories, skew);
+        this.concurrencySteps = concurrencySteps;
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.requestTimeout = requestTimeout;
+        this.seed = seed;
+        this.outputDir = Paths.get(outputDir);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Files.createDirectories(outputDir);
+        for (int concurrency : concurrencySteps) {
+            Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+            for (Scenario scenario : mix.getScenarios()) {
+                stats.put(scenario, new ScenarioStats(scenario));
+            }
+            log.info("Running {} workers for {} after {} warm-up{}", concurrency, duration, warmup,
+                    rate > 0 ? " at " + rate + " requests/s" : "");
+            runStep(concurrency, stats);
+            report(concurrency, stats);
+        }
+    }
+
+    private void runStep(int concurrency, Map<Scenario, ScenarioStats> stats) throws InterruptedException {
+        long now = System.nanoTime();
+        long recordFrom = now + warmup.toNanos();
+        long deadline = recordFrom + duration.toNanos();
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            Random random = new Random(seed + worker);
+            long firstRequest = now + (interval > 0 ? (long) (random.nextDouble() * interval) : 0);
+            workers.execute(() -> work(random, firstRequest, interval, recordFrom, deadline, stats));
+        }
+        workers.shutdown();
+        workers.awaitTermination(deadline - System.nanoTime() + requestTimeout.toNanos() * 2, TimeUnit.NANOSECONDS);
+        workers.shutdownNow();
+    }
+
+    private void work(Random random, long firstRequest, long interval, long recordFrom, long deadline,
+                      Map<Scenario, ScenarioStats> stats) {
+        long intended = firstRequest;
+        while (intended < deadline && !Thread.currentThread().isInterrupted()) {
+            if (interval > 0) {
+                LockSupport.parkNanos(intended - System.nanoTime());
+            } else {
+                intended = System.nanoTime();
+            }
+            Scenario scenario = mix.next(random);
+            HttpRequest request = scenario.request(baseUrl, workload, random, requestTimeout);
+            int status = -1;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                log.debug("Request {} failed: {}", request.uri(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (intended >= recordFrom) {
+                long latency = System.nanoTime() - intended;
+                if (status < 0) {
+                    stats.get(scenario).recordFailure(latency);
+                } else {
+                    stats.get(scenario).record(latency, status);
+                }
+            }
+            intended += interval;
+        }
+    }
+
+    private void report(int concurrency, Map<Scenario, ScenarioStats> stats) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-20s %9s %9s %6s %6s %6s %9s %9s %9s %9s %9s", "scenario", "requests", "req/s",
+                "4xx", "5xx", "fail", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram total = new Histogram(3);
+        for (ScenarioStats scenario : stats.values()) {
+            Histogram latencies = scenario.getLatencies();
+            total.add(latencies);
+            lines.add(line(scenario.getScenario().getCode(), latencies, seconds, scenario.getClientErrors().sum(),
+                    scenario.getServerErrors().sum(), scenario.getFailures().sum()));
+            try (PrintStream out = new PrintStream(outputDir.resolve(String.format("c%d-%s.hgrm", concurrency,
+                    scenario.getScenario().getCode())).toFile())) {
+                latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        lines.add(line("total", total, seconds,
+                stats.values().stream().mapToLong(s -> s.getClientErrors().sum()).sum(),
+                stats.values().stream().mapToLong(s -> s.getServerErrors().sum()).sum(),
+                stats.values().stream().mapToLong(s -> s.getFailures().sum()).sum()));
+        log.info("Results for {} workers:\n{}", concurrency, String.join("\n", lines));
+    }
+
+    private static String line(String name, Histogram latencies, double seconds, long clientErrors,
+                               long serverErrors, long failures) {
+        return String.format("%-20s %9d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                latencies.getTotalCount(), latencies.getTotalCount() / seconds, clientErrors, serverErrors, failures,
+                millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+                latencies.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+public class RequestMix {
+    private final Scenario[] scenarios;
+    private final double[] cumulative;
+
+    public RequestMix(Map<Scenario, Double> weights) {
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Request mix has no scenarios with a positive weight");
+        }
+        scenarios = weights.keySet().toArray(new Scenario[0]);
+        cumulative = new double[scenarios.length];
+        double sum = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            sum += weights.get(scenarios[i]);
+            cumulative[i] = sum / total;
+        }
+    }
+
+    public Scenario next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return scenarios[Math.min(index < 0 ? -index - 1 : index, scenarios.length - 1)];
+    }
+
+    public Scenario[] getScenarios() {
+        return scenarios.clone();
+    }
+
+    public static RequestMix parse(String mix) {
+        Map<Scenario, Double> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid request mix entry: " + entry);
+            }
+            weights.merge(Scenario.fromCode(parts[0].trim()), Double.parseDouble(parts[1].trim()), Double::sum);
+        }
+        return new RequestMix(weights);
+    }
+
+    public static RequestMix fromPostman(Path collection) throws IOException {
+        Map<Scenario, Double> weights = new EnumMap<>(Scenario.class);
+        collectRequests(new ObjectMapper().readTree(collection.toFile()), weights);
+        return new RequestMix(weights);
+    }
+
+    private static void collectRequests(JsonNode item, Map<Scenario, Double> weights) {
+        JsonNode request = item.path("request");
+        if (!request.isMissingNode()) {
+            JsonNode url = request.path("url");
+            String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+            String path = raw.replaceFirst("^\\{\\{baseUrl}}", "").split("[?#]", 2)[0];
+            for (Scenario scenario : Scenario.values()) {
+                if (scenario.matches(request.path("method").asText(), path)) {
+                    weights.merge(scenario, 1.0, Double::sum);
+                }
+            }
+        }
+        for (JsonNode child : item.path("item")) {
+            collectRequests(child, weights);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.loadtest;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+public enum Scenario {
+    PUBLIC_EVENTS("public-events", "GET", "/events") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/events?categories=" + workload.categoryId(random) + "&paid=" + random.nextBoolean() +
+                    "&onlyAvailable=" + random.nextBoolean() + (random.nextBoolean() ? "&sort=EVENT_DATE" : "") +
+                    "&from=" + random.nextInt(5) * 10 + "&size=10";
+        }
+    },
+    PUBLIC_EVENT("public-event", "GET", "/events/{id}") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/events/" + workload.eventId(random);
+        }
+    },
+    USER_EVENTS("user-events", "GET", "/users/{id}/events") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/events?from=0&size=10";
+        }
+    },
+    USER_EVENT("user-event", "GET", "/users/{id}/events/{id}") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/events/" + workload.eventId(random);
+        }
+    },
+    USER_REQUESTS("user-requests", "GET", "/users/{id}/requests") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/requests";
+        }
+    },
+    CREATE_REQUEST("create-request", "POST", "/users/{id}/requests") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/requests?eventId=" + workload.eventId(random);
+        }
+    },
+    EVENT_COMMENTS("event-comments", "GET", "/comments") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/comments?eventId=" + workload.eventId(random);
+        }
+    },
+    USER_EVENT_COMMENTS("user-event-comments", "GET", "/users/{id}/events/{id}/comments") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/events/" + workload.eventId(random) + "/comments";
+        }
+    },
+    CREATE_COMMENT("create-comment", "POST", "/users/{id}/comments") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/users/" + workload.userId(random) + "/comments?eventId=" + workload.eventId(random);
+        }
+
+        @Override
+        String body(Random random) {
+            return "{\"text\":\"load test comment " + random.nextInt(1_000_000) + "\"}";
+        }
+    },
+    ADMIN_EVENTS("admin-events", "GET", "/admin/events") {
+        @Override
+        String uri(Workload workload, Random random) {
+            return "/admin/events?states=PUBLISHED&categories=" + workload.categoryId(random) + "&from=0&size=10";
+        }
+    };
+
+    @Getter
+    private final String code;
+    private final String method;
+    private final Pattern path;
+
+    Scenario(String code, String method, String path) {
+        this.code = code;
+        this.method = method;
+        this.path = Pattern.compile(path.replace("{id}", "[^/]+"));
+    }
+
+    abstract String uri(Workload workload, Random random);
+
+    String body(Random random) {
+        return null;
+    }
+
+    public boolean matches(String method, String path) {
+        return this.method.equals(method) && this.path.matcher(path).matches();
+    }
+
+    public HttpRequest request(URI baseUrl, Workload workload, Random random, Duration timeout) {
+        String body = body(random);
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUrl.resolve(uri(workload, random)))
+                .timeout(timeout);
+        if (body == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    public static Scenario fromCode(String code) {
+        for (Scenario scenario : values()) {
+            if (scenario.code.equals(code)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + code);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.loadtest;
+
+import ru.practicum.workload.Popularity;
+
+import java.util.Random;
+
+public class Workload {
+    private final int users;
+    private final int events;
+    private final int categories;
+    private final Popularity eventPopularity;
+
+    public Workload(int users, int events, int categories, double skew) {
+        this.users = users;
+        this.events = events;
+        this.categories = categories;
+        this.eventPopularity = new Popularity(events, skew);
+    }
+
+    public long userId(Random random) {
+        return random.nextInt(users) + 1;
+    }
+
+    public long eventId(Random random) {
+        return eventPopularity.sample(random);
+    }
+
+    public long categoryId(Random random) {
+        return random.nextInt(categories) + 1;
+    }
+}
@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.client.statclient.StatisticClient;
 import ru.practicum.server.event.dto.EventFullDto;
 import ru.practicum.server.event.dto.EventPublicRequestDto;
 import ru.practicum.server.event.dto.ListEventShortDto;
@@ -35,7 +37,8 @@ public class PublicEventController {
     public ResponseEntity<EventFullDto> getEventById(@PathVariable("id") @Min(1) Long eventId,
                                                      HttpServletRequest servlet) {
         log.info("get event with id={}", eventId);
-        return ResponseEntity.status(HttpStatus.OK).body(eventService.getEventByIdPublic(eventId, servlet));
+        EventFullDto event = eventService.getEventByIdPublic(eventId, servlet);
+        return ok(event, servlet);
     }
 
     @GetMapping
@@ -51,17 +54,25 @@ public class PublicEventController {
             @RequestParam(defaultValue = "10") @Min(1) Integer size,
             HttpServletRequest servlet) {
         log.info("get events public");
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(eventService.getEventsByFiltersPublic(EventPublicRequestDto
-                        .builder()
-                        .text(text)
-                        .categories(categories)
-                        .paid(paid)
-                        .rangeStart(rangeStart)
-                        .rangeEnd(rangeEnd)
-                        .onlyAvailable(onlyAvailable)
-                        .sort(sort)
-                        .build(),
-                        PageRequest.of(from / size, size, Sort.by(EventSort.getSortField(sort)).ascending()), servlet));
+        ListEventShortDto events = eventService.getEventsByFiltersPublic(EventPublicRequestDto
+                .builder()
+                .text(text)
+                .categories(categories)
+                .paid(paid)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .onlyAvailable(onlyAvailable)
+                .sort(sort)
+                .build(),
+                PageRequest.of(from / size, size, Sort.by(EventSort.getSortField(sort)).ascending()), servlet);
+        return ok(events, servlet);
+    }
+
+    private <T> ResponseEntity<T> ok(T body, HttpServletRequest servlet) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (StatisticClient.isDegraded(servlet)) {
+            response.header(HttpHeaders.WARNING, "110 - \"Views are stale: stats-server is unavailable\"");
+        }
+        return response.body(body);
     }
 }
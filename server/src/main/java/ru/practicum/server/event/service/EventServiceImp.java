@@ -350,7 +350,7 @@ public class EventServiceImp implements EventService {
     }
 
     private ListEventFullDto setViewsAndCommentsAndRequestsForAdmin(Page<Event> page) {
-        List<Long> eventsId = events.findAll()
+        List<Long> eventsId = page.getContent()
                 .stream()
                 .map(Event::getEventId)
                 .collect(Collectors.toList());
@@ -358,8 +358,7 @@ public class EventServiceImp implements EventService {
                 .builder()
                 .events(mapper.mapToListEventFullDto(page.getContent()))
                 .build();
-        List<ViewStats> viewStats = statisticClient.getViews(eventsId,false);
-        Map<Long,ViewStats> views = new HashMap<>();
+        Map<Long,ViewStats> views = statisticClient.getViews(eventsId,false);
         List<Request> requestList = requestRepository.findAllByEventEventIdIn(eventsId);
         Map<Long,List<Request>> requests = requestList
                 .stream()
@@ -369,9 +368,6 @@ public class EventServiceImp implements EventService {
         Map<Long,List<Comment>> comments = commentList
                 .stream()
                 .collect(Collectors.groupingBy(c -> c.getEvent().getEventId()));
-        for (ViewStats stat:viewStats) {
-            views.put(Long.parseLong(stat.getUri().replace("/events/", "")),stat);
-        }
         for (EventFullDto eventFull: fullDto.getEvents()) {
             if (views.containsKey(eventFull.getId())) {
                 eventFull.setViews(views.get(eventFull.getId()).getHits());
@@ -394,7 +390,7 @@ public class EventServiceImp implements EventService {
     }
 
     private ListEventShortDto setViewsAndCommentsAndRequestsForPublic(Page<Event> page) {
-        List<Long> eventsId = events.findAll()
+        List<Long> eventsId = page.getContent()
                 .stream()
                 .map(Event::getEventId)
                 .collect(Collectors.toList());
@@ -402,8 +398,7 @@ public class EventServiceImp implements EventService {
                 .builder()
                 .events(mapper.mapToListEventShortDto(page.getContent()))
                 .build();
-        List<ViewStats> viewStats = statisticClient.getViews(eventsId,false);
-        Map<Long,ViewStats> views = new HashMap<>();
+        Map<Long,ViewStats> views = statisticClient.getViews(eventsId,false);
         List<Request> requestList = requestRepository.findAllByEventEventIdIn(eventsId);
         Map<Long,List<Request>> requests = requestList
                 .stream()
@@ -413,9 +408,6 @@ public class EventServiceImp implements EventService {
         Map<Long,List<Comment>> comments = commentList
                 .stream()
                 .collect(Collectors.groupingBy(c -> c.getEvent().getEventId()));
-        for (ViewStats stat:viewStats) {
-            views.put(Long.parseLong(stat.getUri().replace("/events/", "")),stat);
-        }
         for (EventShortDto eventShort: shortDto.getEvents()) {
             if (views.containsKey(eventShort.getId())) {
                 eventShort.setViews(views.get(eventShort.getId()).getHits());
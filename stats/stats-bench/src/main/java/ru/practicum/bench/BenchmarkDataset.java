@@ -0,0 +1,79 @@
+package ru.practicum.bench;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.workload.ZipfDistribution;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BenchmarkDataset {
+    public static final String APP = "ewm-main-service";
+    private static final int BATCH_SIZE = 10_000;
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final List<String> uris;
+    private final ZipfDistribution distribution;
+
+    public BenchmarkDataset(int uriCount, double skew, int days) {
+        this.end = LocalDate.now().atStartOfDay();
+        this.start = end.minusDays(days);
+        this.uris = new ArrayList<>(uriCount);
+        for (int i = 1; i <= uriCount; i++) {
+            uris.add("/events/" + i);
+        }
+        this.distribution = new ZipfDistribution(uriCount, skew);
+    }
+
+    public void seed(String url, int hits, long seed) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO endpoint_apps (name) VALUES (?)", APP);
+        jdbcTemplate.batchUpdate("INSERT INTO endpoint_uris (uri) VALUES (?)", uris, BATCH_SIZE,
+                (ps, uri) -> ps.setString(1, uri));
+        int appId = jdbcTemplate.queryForObject("SELECT id FROM endpoint_apps WHERE name = ?", Integer.class, APP);
+        int[] uriIds = new int[uris.size()];
+        jdbcTemplate.query("SELECT id, uri FROM endpoint_uris", rs -> {
+            uriIds[Integer.parseInt(rs.getString("uri").substring("/events/".length())) - 1] = rs.getInt("id");
+        });
+        Random random = new Random(seed);
+        long seconds = Duration.between(start, end).getSeconds();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < hits; i++) {
+            int ip = random.nextInt();
+            batch.add(new Object[]{appId, uriIds[distribution.sample(random)],
+                    new byte[]{(byte) (ip >>> 24), (byte) (ip >>> 16), (byte) (ip >>> 8), (byte) ip},
+                    Timestamp.valueOf(start.plusSeconds((long) (random.nextDouble() * seconds)))});
+            if (batch.size() == BATCH_SIZE || i == hits - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO endpoint_hits (app_id, uri_id, ip, timestamp) " +
+                        "VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public List<String> hottestUris(int count) {
+        return uris.subList(0, Math.min(count, uris.size()));
+    }
+
+    public String randomUri(Random random) {
+        return uris.get(distribution.sample(random));
+    }
+}
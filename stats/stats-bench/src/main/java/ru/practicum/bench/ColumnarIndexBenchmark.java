@@ -0,0 +1,124 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.server.StatsApplication;
+import ru.practicum.server.columnar.ColumnarHitIndex;
+import ru.practicum.server.dictionary.HitDictionary;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.storage.HitStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColumnarIndexBenchmark {
+    private static final String URL = "jdbc:h2:mem:columnar;DB_CLOSE_DELAY=-1";
+
+    @State(Scope.Benchmark)
+    public static class Window {
+        @Param({"200000", "1000000"})
+        public int hits;
+
+        @Param({"10000"})
+        public int uris;
+
+        @Param({"1.1"})
+        public double skew;
+
+        @Param({"10"})
+        public int queryUris;
+
+        @Param({"42"})
+        public long seed;
+
+        private ConfigurableApplicationContext context;
+        private ColumnarHitIndex columnar;
+        private HitStorage storage;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private List<Integer> hotUriIds;
+        private int query;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkDataset dataset = new BenchmarkDataset(uris, skew, 1);
+            dataset.seed(URL, hits, seed);
+            context = new SpringApplicationBuilder(StatsApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run("--spring.datasource.url=" + URL,
+                            "--stats.columnar.enabled=true",
+                            "--stats.columnar.window-hours=48",
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.hibernate.SQL=WARN",
+                            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+            columnar = context.getBean(ColumnarHitIndex.class);
+            storage = context.getBean(HitStorage.class);
+            start = dataset.getStart();
+            end = dataset.getEnd();
+            hotUriIds = context.getBean(HitDictionary.class).findUriIds(dataset.hottestUris(queryUris));
+            if (!columnar.covers(start, true, false)) {
+                throw new IllegalStateException("Columnar index does not cover the benchmark window");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private LocalDateTime nextEnd() {
+            return end.minusSeconds(query++ % 3600);
+        }
+    }
+
+    @Benchmark
+    public List<HitCount> columnarHitCounts(Window state) {
+        return state.columnar.getHitCounts(state.start, state.nextEnd(), null, false);
+    }
+
+    @Benchmark
+    public List<HitCount> storageHitCounts(Window state) {
+        return state.storage.getHitCounts(state.start, state.nextEnd(), null, false);
+    }
+
+    @Benchmark
+    public List<HitCount> columnarUniqueHitCounts(Window state) {
+        return state.columnar.getHitCounts(state.start, state.nextEnd(), null, true);
+    }
+
+    @Benchmark
+    public List<HitCount> storageUniqueHitCounts(Window state) {
+        return state.storage.getHitCounts(state.start, state.nextEnd(), null, true);
+    }
+
+    @Benchmark
+    public List<HitCount> columnarHitCountsByUris(Window state) {
+        return state.columnar.getHitCounts(state.start, state.nextEnd(), state.hotUriIds, false);
+    }
+
+    @Benchmark
+    public List<HitCount> storageHitCountsByUris(Window state) {
+        return state.storage.getHitCounts(state.start, state.nextEnd(), state.hotUriIds, false);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.dto.CreateEndpointHitDto;
+import ru.practicum.dto.ListViewStats;
+import ru.practicum.dto.ResponseEndpointHitDto;
+import ru.practicum.server.StatsApplication;
+import ru.practicum.server.service.StatisticService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatisticServiceBenchmark {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String URL = "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"1000000", "10000000"})
+        public int hits;
+
+        @Param({"10000"})
+        public int uris;
+
+        @Param({"1.1"})
+        public double skew;
+
+        @Param({"30"})
+        public int days;
+
+        @Param({"10"})
+        public int queryUris;
+
+        @Param({"42"})
+        public long seed;
+
+        @Param({""})
+        public String properties;
+
+        private ConfigurableApplicationContext context;
+        private StatisticService service;
+        private BenchmarkDataset dataset;
+        private String start;
+        private String end;
+        private List<String> hotUris;
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            dataset = new BenchmarkDataset(uris, skew, days);
+            dataset.seed(URL, hits, seed);
+            List<String> args = new ArrayList<>(List.of("--spring.datasource.url=" + URL,
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+            if (!properties.isBlank()) {
+                for (String property : properties.split(";")) {
+                    args.add("--" + property);
+                }
+            }
+            context = new SpringApplicationBuilder(StatsApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run(args.toArray(new String[0]));
+            service = context.getBean(StatisticService.class);
+            start = dataset.getStart().format(FORMATTER);
+            end = dataset.getEnd().format(FORMATTER);
+            hotUris = dataset.hottestUris(queryUris);
+            random = new Random(seed);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResponseEndpointHitDto addEndpointHit(Dataset state) {
+        int ip = state.random.nextInt();
+        return state.service.addEndpointHit(CreateEndpointHitDto.builder()
+                .app(BenchmarkDataset.APP)
+                .uri(state.dataset.randomUri(state.random))
+                .ip((ip >>> 24) + "." + (ip >>> 16 & 0xFF) + "." + (ip >>> 8 & 0xFF) + "." + (ip & 0xFF))
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .build());
+    }
+
+    @Benchmark
+    public ListViewStats getStats(Dataset state) {
+        return state.service.getStats(state.start, state.end, null, false, false);
+    }
+
+    @Benchmark
+    public ListViewStats getStatsUnique(Dataset state) {
+        return state.service.getStats(state.start, state.end, null, true, false);
+    }
+
+    @Benchmark
+    public ListViewStats getStatsByUris(Dataset state) {
+        return state.service.getStats(state.start, state.end, state.hotUris, false, false);
+    }
+
+    @Benchmark
+    public ListViewStats getStatsByUrisUnique(Dataset state) {
+        return state.service.getStats(state.start, state.end, state.hotUris, true, false);
+    }
+}
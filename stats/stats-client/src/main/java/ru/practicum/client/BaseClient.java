@@ -4,8 +4,8 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.dto.ViewStats;
 
 import java.util.List;
@@ -13,23 +13,37 @@ import java.util.Map;
 
 public class BaseClient {
     protected final RestTemplate rest;
+    protected final CircuitBreaker breaker;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, CircuitBreaker breaker) {
         this.rest = rest;
+        this.breaker = breaker;
     }
 
-    protected <T> void post(String path, T body) {
-        makeAndSendRequest(HttpMethod.POST, path, null, body);
+    protected <T> ResponseEntity<Object> post(String path, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, null, body);
     }
 
     protected ResponseEntity<List<ViewStats>> get(String path, Map<String, Object> parameters) {
         HttpEntity<Object> requestEntity = new HttpEntity<>(null, defaultHeaders());
         ResponseEntity<List<ViewStats>> statsServerResponse;
+        acquire();
+        boolean recorded = false;
         try {
             statsServerResponse = rest.exchange(path, HttpMethod.GET, requestEntity, new ParameterizedTypeReference<>() {
             }, parameters);
+            breaker.onSuccess();
+            recorded = true;
         } catch (HttpStatusCodeException ex) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+            record(ex);
+            recorded = true;
+            throw new StatsUnavailableException(ex.getMessage(), ex);
+        } catch (RestClientException ex) {
+            throw new StatsUnavailableException(ex.getMessage(), ex);
+        } finally {
+            if (!recorded) {
+                breaker.onFailure();
+            }
         }
         return prepareEventClientResponse2(statsServerResponse);
     }
@@ -61,18 +75,44 @@ public class BaseClient {
             HttpMethod method, String path, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
         ResponseEntity<Object> statsServerResponse;
+        acquire();
+        boolean recorded = false;
         try {
             if (parameters != null) {
                 statsServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
             } else {
                 statsServerResponse = rest.exchange(path, method, requestEntity, Object.class);
             }
+            breaker.onSuccess();
+            recorded = true;
         } catch (HttpStatusCodeException ex) {
+            record(ex);
+            recorded = true;
             return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsByteArray());
+        } catch (RestClientException ex) {
+            throw new StatsUnavailableException(ex.getMessage(), ex);
+        } finally {
+            if (!recorded) {
+                breaker.onFailure();
+            }
         }
         return prepareEventClientResponse(statsServerResponse);
     }
 
+    private void acquire() {
+        if (!breaker.tryAcquire()) {
+            throw new StatsUnavailableException("stats-server circuit breaker is open");
+        }
+    }
+
+    private void record(HttpStatusCodeException ex) {
+        if (ex.getStatusCode().is5xxServerError() || ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
     private HttpHeaders defaultHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -0,0 +1,70 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+public class CircuitBreaker {
+    private final String name;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private final Counter rejected;
+    private volatile long openedAt;
+
+    public CircuitBreaker(String name, boolean enabled, int failureThreshold, Duration openDuration,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.rejected = meterRegistry.counter(name + ".breaker.rejected");
+        meterRegistry.gauge(name + ".breaker.open", state, current -> current.get() == State.CLOSED ? 0 : 1);
+    }
+
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (!enabled || current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Circuit breaker {} closed", name);
+        }
+    }
+
+    public void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.nanoTime();
+            failures.set(0);
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                log.warn("Circuit breaker {} opened for {} ms", name, openNanos / 1_000_000);
+            }
+        }
+    }
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.client;
+
+public class StatsUnavailableException extends RuntimeException {
+    public StatsUnavailableException(String message) {
+        super(message);
+    }
+
+    public StatsUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
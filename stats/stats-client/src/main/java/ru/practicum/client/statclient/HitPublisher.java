@@ -0,0 +1,151 @@
+package ru.practicum.client.statclient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.dto.CreateEndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Slf4j
+class HitPublisher {
+    private final Consumer<List<CreateEndpointHitDto>> sender;
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final ConcurrentLinkedDeque<CreateEndpointHitDto> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final Counter sent;
+    private final Counter dropped;
+    private final Counter failed;
+    private boolean closed;
+    private volatile boolean failing;
+
+    HitPublisher(Consumer<List<CreateEndpointHitDto>> sender, int capacity, int batchSize, long flushIntervalMs,
+                 OverflowPolicy overflowPolicy, MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sent = meterRegistry.counter("stats.client.publish.sent");
+        this.dropped = meterRegistry.counter("stats.client.publish.dropped");
+        this.failed = meterRegistry.counter("stats.client.publish.failed");
+        meterRegistry.gauge("stats.client.publish.queued", size);
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void publish(CreateEndpointHitDto hit) {
+        stateLock.readLock().lock();
+        try {
+            enqueue(hit);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    void close() {
+        stateLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        int lost = 0;
+        while (queue.poll() != null) {
+            lost++;
+        }
+        if (lost > 0) {
+            size.addAndGet(-lost);
+            dropped.increment(lost);
+            log.warn("Dropped {} unpublished hits on close", lost);
+        }
+    }
+
+    private void enqueue(CreateEndpointHitDto hit) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        if (!reserve()) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST || queue.poll() == null) {
+                dropped.increment();
+                return;
+            }
+            dropped.increment();
+        }
+        queue.offer(hit);
+        if (size.get() >= batchSize && !failing && flushScheduled.compareAndSet(false, true)) {
+            // close() shuts the executor down only after it has seen every publish holding the read lock
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private synchronized void flush() {
+        while (!queue.isEmpty()) {
+            List<CreateEndpointHitDto> batch = new ArrayList<>(batchSize);
+            CreateEndpointHitDto hit;
+            while (batch.size() < batchSize && (hit = queue.poll()) != null) {
+                batch.add(hit);
+            }
+            try {
+                sender.accept(batch);
+            } catch (RuntimeException e) {
+                // the batch keeps its reserved capacity, so putting it back can never overflow
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    queue.offerFirst(batch.get(i));
+                }
+                failing = true;
+                failed.increment(batch.size());
+                log.warn("Failed to publish {} hits, retrying on the next flush: {}", batch.size(), e.getMessage());
+                return;
+            }
+            size.addAndGet(-batch.size());
+            sent.increment(batch.size());
+            failing = false;
+        }
+    }
+
+    enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+}
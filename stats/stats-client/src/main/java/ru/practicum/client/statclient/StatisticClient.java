@@ -1,5 +1,8 @@
 package ru.practicum.client.statclient;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,59 +10,110 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.client.BaseClient;
+import ru.practicum.client.CircuitBreaker;
+import ru.practicum.client.StatsUnavailableException;
 import ru.practicum.dto.CreateEndpointHitDto;
 import ru.practicum.dto.ViewStats;
 
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class StatisticClient extends BaseClient {
+    private static final String DEGRADED_ATTRIBUTE = StatisticClient.class.getName() + ".degraded";
+
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final HitPublisher publisher;
+    private final int maxUrisPerRequest;
+    private final ViewCache viewCache;
+    private final ViewFlights viewFlights;
+    private final Cache<ViewKey, ViewStats> lastKnownViews;
 
     @Autowired
-    public StatisticClient(@Value("${STAT-SERVER-URL}") String serverUrl, RestTemplateBuilder builder) {
+    public StatisticClient(@Value("${STAT-SERVER-URL}") String serverUrl, RestTemplateBuilder builder,
+                           MeterRegistry meterRegistry,
+                           @Value("${stats.client.async.enabled:false}") boolean async,
+                           @Value("${stats.client.async.capacity:10000}") int capacity,
+                           @Value("${stats.client.async.batch-size:500}") int batchSize,
+                           @Value("${stats.client.async.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${stats.client.async.overflow:drop_newest}") String overflow,
+                           @Value("${stats.client.views.max-uris-per-request:200}") int maxUrisPerRequest,
+                           @Value("${stats.client.views.cache.enabled:false}") boolean cacheViews,
+                           @Value("${stats.client.views.cache.ttl:5s}") Duration cacheTtl,
+                           @Value("${stats.client.views.cache.max-size:100000}") long cacheMaxSize,
+                           @Value("${stats.client.views.coalesce:true}") boolean coalesceViews,
+                           @Value("${stats.client.views.last-known.max-size:100000}") long lastKnownMaxSize,
+                           @Value("${stats.client.connect-timeout:1s}") Duration connectTimeout,
+                           @Value("${stats.client.read-timeout:2s}") Duration readTimeout,
+                           @Value("${stats.client.breaker.enabled:true}") boolean breakerEnabled,
+                           @Value("${stats.client.breaker.failure-threshold:5}") int failureThreshold,
+                           @Value("${stats.client.breaker.open-duration:10s}") Duration openDuration) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+                .requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+                    factory.setConnectionRequestTimeout((int) connectTimeout.toMillis());
+                    return factory;
+                })
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout)
+                .build(),
+                new CircuitBreaker("stats.client", breakerEnabled, failureThreshold, openDuration, meterRegistry));
+        this.publisher = async ? new HitPublisher(this::postHits, capacity, batchSize, flushIntervalMs,
+                HitPublisher.OverflowPolicy.valueOf(overflow.toUpperCase()), meterRegistry) : null;
+        this.maxUrisPerRequest = maxUrisPerRequest;
+        this.viewCache = cacheViews ? new ViewCache(cacheTtl, cacheMaxSize, meterRegistry) : null;
+        this.viewFlights = coalesceViews ? new ViewFlights() : null;
+        this.lastKnownViews = Caffeine.newBuilder().maximumSize(lastKnownMaxSize).build();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (publisher != null) {
+            publisher.close();
+        }
     }
 
     public Long getViews(Long eventId,Boolean isUniq) {
-        String url = "/stats?start={start}&end={end}&uris={uris}&unique={unique}";
-        Map<String, Object> parameters = Map.of(
-        "start", LocalDateTime.now().minusYears(100).format(formatter),
-                "end", LocalDateTime.now().format(formatter),
-                "uris", "/events/" + eventId,
-                "unique", isUniq
-        );
-        ResponseEntity<List<ViewStats>> response = get(url, parameters);
-        List<ViewStats> viewStatsList = response.hasBody() ? response.getBody() : null;
-        return viewStatsList != null && !viewStatsList.isEmpty() ? viewStatsList.get(0).getHits() : 0L;
+        ViewStats viewStats = getViews(List.of(eventId), isUniq).get(eventId);
+        return viewStats != null ? viewStats.getHits() : 0L;
     }
 
-    public  List<ViewStats> getViews(List<Long> eventId,Boolean isUniq) {
-        String url = "/stats?start={start}&end={end}&uris={uris}&unique={unique}";
-        List<ViewStats> viewStatsList = new ArrayList<>();
-            for (Long id : eventId) {
-                Map<String, Object> parameters = Map.of(
-                        "start", LocalDateTime.now().minusYears(100).format(formatter),
-                        "end", LocalDateTime.now().format(formatter),
-                        "uris", "/events/" + id,
-                        "unique", isUniq
-                );
-                ResponseEntity<List<ViewStats>> response = get(url, parameters);
-                if (Objects.requireNonNull(response.getBody()).size() != 0) {
-                    viewStatsList.add(response.getBody().get(0));
+    public Map<Long, ViewStats> getViews(List<Long> eventIds, Boolean isUniq) {
+        boolean unique = Boolean.TRUE.equals(isUniq);
+        Function<List<Long>, Map<Long, ViewStats>> loader = viewFlights != null
+                ? missing -> viewFlights.getAll(missing, unique, ids -> fetchViews(ids, unique))
+                : missing -> fetchViews(missing, unique);
+        try {
+            return viewCache != null ? viewCache.getAll(eventIds, unique, loader) : loader.apply(eventIds);
+        } catch (StatsUnavailableException e) {
+            log.warn("Serving last known views for {} events: {}", eventIds.size(), e.getMessage());
+            markDegraded();
+            Map<Long, ViewStats> views = new HashMap<>();
+            for (Long eventId : eventIds) {
+                ViewStats stats = lastKnownViews.getIfPresent(new ViewKey(eventId, unique));
+                if (stats != null) {
+                    views.put(eventId, stats);
                 }
             }
-        return  viewStatsList;
+            return views;
+        }
+    }
+
+    public static boolean isDegraded(HttpServletRequest servlet) {
+        return Boolean.TRUE.equals(servlet.getAttribute(DEGRADED_ATTRIBUTE));
     }
 
     public void postStats(HttpServletRequest servlet, String app) {
@@ -70,6 +124,52 @@ public class StatisticClient extends BaseClient {
                 .uri(servlet.getRequestURI())
                 .timestamp(LocalDateTime.now().format(formatter))
                 .build();
-        post("/hit", hit);
+        if (publisher != null) {
+            publisher.publish(hit);
+            return;
+        }
+        try {
+            post("/hit", hit);
+        } catch (StatsUnavailableException e) {
+            log.debug("Dropped hit for {}: {}", hit.getUri(), e.getMessage());
+        }
+    }
+
+    private Map<Long, ViewStats> fetchViews(List<Long> eventIds, boolean unique) {
+        String url = "/stats?start={start}&end={end}&uris={uris}&unique={unique}";
+        Map<Long, ViewStats> views = new HashMap<>();
+        String start = LocalDateTime.now().minusYears(100).format(formatter);
+        String end = LocalDateTime.now().format(formatter);
+        for (int from = 0; from < eventIds.size(); from += maxUrisPerRequest) {
+            List<Long> chunk = eventIds.subList(from, Math.min(eventIds.size(), from + maxUrisPerRequest));
+            Map<String, Object> parameters = Map.of(
+                    "start", start,
+                    "end", end,
+                    "uris", chunk.stream().map(id -> "/events/" + id).collect(Collectors.joining(",")),
+                    "unique", unique
+            );
+            ResponseEntity<List<ViewStats>> response = get(url, parameters);
+            if (response.hasBody()) {
+                for (ViewStats stat : Objects.requireNonNull(response.getBody())) {
+                    views.putIfAbsent(Long.parseLong(stat.getUri().replace("/events/", "")), stat);
+                }
+            }
+        }
+        views.forEach((eventId, stats) -> lastKnownViews.put(new ViewKey(eventId, unique), stats));
+        return views;
+    }
+
+    private void markDegraded() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(DEGRADED_ATTRIBUTE, true, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private void postHits(List<CreateEndpointHitDto> hits) {
+        ResponseEntity<Object> response = post("/hits", hits);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("stats-server responded with " + response.getStatusCode());
+        }
     }
 }
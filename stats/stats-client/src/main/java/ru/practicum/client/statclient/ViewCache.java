@@ -0,0 +1,54 @@
+package ru.practicum.client.statclient;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ru.practicum.dto.ViewStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+class ViewCache {
+    private final Cache<ViewKey, ViewStats> cache;
+
+    ViewCache(Duration ttl, long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stats.client.views");
+    }
+
+    Map<Long, ViewStats> getAll(List<Long> eventIds, boolean unique,
+                                Function<List<Long>, Map<Long, ViewStats>> loader) {
+        List<ViewKey> keys = new ArrayList<>(eventIds.size());
+        for (Long eventId : eventIds) {
+            keys.add(new ViewKey(eventId, unique));
+        }
+        Map<ViewKey, ViewStats> cached = cache.getAll(keys, missing -> {
+            List<Long> missingIds = new ArrayList<>();
+            missing.forEach(key -> missingIds.add(key.getEventId()));
+            Map<Long, ViewStats> loaded = loader.apply(missingIds);
+            Map<ViewKey, ViewStats> entries = new HashMap<>();
+            for (Long eventId : missingIds) {
+                ViewStats stats = loaded.get(eventId);
+                entries.put(new ViewKey(eventId, unique),
+                        stats != null ? stats : new ViewStats(null, "/events/" + eventId, 0L));
+            }
+            return entries;
+        });
+        Map<Long, ViewStats> views = new HashMap<>();
+        cached.forEach((key, stats) -> {
+            if (stats.getHits() > 0) {
+                views.put(key.getEventId(), stats);
+            }
+        });
+        return views;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.client.statclient;
+
+import ru.practicum.dto.ViewStats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+class ViewFlights {
+    private final Map<ViewKey, CompletableFuture<ViewStats>> inFlight = new ConcurrentHashMap<>();
+
+    Map<Long, ViewStats> getAll(List<Long> eventIds, boolean unique,
+                                Function<List<Long>, Map<Long, ViewStats>> loader) {
+        Map<Long, CompletableFuture<ViewStats>> owned = new HashMap<>();
+        Map<Long, CompletableFuture<ViewStats>> joined = new HashMap<>();
+        for (Long eventId : eventIds) {
+            if (owned.containsKey(eventId) || joined.containsKey(eventId)) {
+                continue;
+            }
+            CompletableFuture<ViewStats> flight = new CompletableFuture<>();
+            CompletableFuture<ViewStats> existing = inFlight.putIfAbsent(new ViewKey(eventId, unique), flight);
+            if (existing == null) {
+                owned.put(eventId, flight);
+            } else {
+                joined.put(eventId, existing);
+            }
+        }
+        Map<Long, ViewStats> views = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<Long, ViewStats> loaded = loader.apply(new ArrayList<>(owned.keySet()));
+                owned.forEach((eventId, flight) -> flight.complete(loaded.get(eventId)));
+                loaded.forEach((eventId, stats) -> {
+                    if (owned.containsKey(eventId)) {
+                        views.put(eventId, stats);
+                    }
+                });
+            } catch (Throwable e) {
+                owned.values().forEach(flight -> flight.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach((eventId, flight) -> inFlight.remove(new ViewKey(eventId, unique), flight));
+            }
+        }
+        joined.forEach((eventId, flight) -> {
+            ViewStats stats = join(flight);
+            if (stats != null) {
+                views.put(eventId, stats);
+            }
+        });
+        return views;
+    }
+
+    private static ViewStats join(CompletableFuture<ViewStats> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
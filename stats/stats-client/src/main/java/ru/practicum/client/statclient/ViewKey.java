@@ -0,0 +1,9 @@
+package ru.practicum.client.statclient;
+
+import lombok.Value;
+
+@Value
+class ViewKey {
+    Long eventId;
+    boolean unique;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class ListTimeSeriesViewStats {
+    @JsonValue
+    private List<TimeSeriesViewStats> timeSeries;
+}
@@ -11,4 +11,5 @@ public class ResponseEndpointHitDto {
     private String uri;
     private String ip;
     private String timestamp;
+    private boolean suppressed;
 }
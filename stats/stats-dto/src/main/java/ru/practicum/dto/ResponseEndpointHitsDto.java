@@ -0,0 +1,11 @@
+package ru.practicum.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ResponseEndpointHitsDto {
+    private Integer saved;
+    private Integer suppressed;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class TimeSeriesViewStats {
+    private String app;
+    private String uri;
+    private String bucket;
+    private Long hits;
+}
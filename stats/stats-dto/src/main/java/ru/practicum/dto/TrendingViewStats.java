@@ -0,0 +1,15 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class TrendingViewStats {
+    private String app;
+    private String uri;
+    private Long hits;
+    private Double velocity;
+}
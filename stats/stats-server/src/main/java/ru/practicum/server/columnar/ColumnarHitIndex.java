@@ -0,0 +1,278 @@
+package ru.practicum.server.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class ColumnarHitIndex implements EndpointHitListener {
+    private static final int MAX_DENSE_KEYS = 1 << 24;
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final HitStorage storage;
+    private final boolean enabled;
+    private final long windowSeconds;
+    private final int initialCapacity;
+    private volatile Columns columns;
+    private volatile long cutoff = Long.MAX_VALUE;
+
+    public ColumnarHitIndex(HitStorage storage,
+                            @Value("${stats.columnar.enabled:false}") boolean enabled,
+                            @Value("${stats.columnar.window-hours:24}") long windowHours,
+                            @Value("${stats.columnar.initial-capacity:1048576}") int initialCapacity) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.windowSeconds = windowHours * 3600;
+        this.initialCapacity = initialCapacity;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (!enabled) {
+            return;
+        }
+        cutoff = epochSecond(LocalDateTime.now()) - windowSeconds;
+        columns = new Columns(initialCapacity);
+        storage.streamHits(LocalDateTime.ofEpochSecond(cutoff, 0, ZoneOffset.UTC), END_OF_TIME, this::append);
+        log.info("Loaded {} hits into the columnar index", columns.size);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.columnar.compact-interval-ms:60000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long newCutoff = epochSecond(LocalDateTime.now()) - windowSeconds;
+        Columns current = columns;
+        int copied = current.size;
+        int kept = 0;
+        for (int i = 0; i < copied; i++) {
+            if (current.epochSeconds[i] >= newCutoff) {
+                kept++;
+            }
+        }
+        Columns compacted = copy(current, 0, copied, newCutoff, new Columns(Math.max(initialCapacity, kept * 2)));
+        synchronized (this) {
+            // rows below the snapshot size never change, grow() only moves them to larger arrays
+            Columns latest = columns;
+            cutoff = newCutoff;
+            columns = copy(latest, copied, latest.size, newCutoff, compacted);
+        }
+    }
+
+    public boolean covers(LocalDateTime start, boolean unique, boolean approx) {
+        Columns snapshot = columns;
+        return enabled && epochSecond(start) >= cutoff && (!unique || approx || snapshot.hashedIpCount == 0)
+                && (long) (snapshot.maxAppId + 1) * (snapshot.maxUriId + 1) <= Integer.MAX_VALUE;
+    }
+
+    @Override
+    public synchronized void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (EndpointHit hit : hits) {
+            append(hit);
+        }
+    }
+
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                       boolean unique) {
+        Columns snapshot = columns;
+        int size = snapshot.size;
+        long from = epochSecond(start);
+        long to = epochSecond(end);
+        int uriStride = snapshot.maxUriId + 1;
+        long keys = (long) (snapshot.maxAppId + 1) * uriStride;
+        boolean[] wanted = null;
+        if (uriIds != null) {
+            wanted = new boolean[uriStride];
+            for (Integer uriId : uriIds) {
+                if (uriId < uriStride) {
+                    wanted[uriId] = true;
+                }
+            }
+        }
+        if (unique) {
+            return getUniqueHitCounts(snapshot, size, from, to, wanted, uriStride);
+        }
+        int[] appIds = snapshot.appIds;
+        int[] uris = snapshot.uriIds;
+        long[] epochSeconds = snapshot.epochSeconds;
+        int[] weights = snapshot.weights;
+        if (keys > MAX_DENSE_KEYS) {
+            HitCountAccumulator hits = new HitCountAccumulator();
+            for (int i = 0; i < size; i++) {
+                long time = epochSeconds[i];
+                if (time >= from && time <= to && (wanted == null || wanted[uris[i]])) {
+                    hits.add(appIds[i], uris[i], weights[i]);
+                }
+            }
+            return hits.sorted();
+        }
+        long[] counts = new long[(int) keys];
+        if (wanted == null) {
+            for (int i = 0; i < size; i++) {
+                long time = epochSeconds[i];
+                if (time >= from && time <= to) {
+                    counts[appIds[i] * uriStride + uris[i]] += weights[i];
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                long time = epochSeconds[i];
+                if (time >= from && time <= to && wanted[uris[i]]) {
+                    counts[appIds[i] * uriStride + uris[i]] += weights[i];
+                }
+            }
+        }
+        List<HitCount> hitCounts = new ArrayList<>();
+        for (int key = 0; key < counts.length; key++) {
+            if (counts[key] > 0) {
+                hitCounts.add(new HitCount(key / uriStride, key % uriStride, counts[key]));
+            }
+        }
+        hitCounts.sort(HitCountAccumulator.MOST_HITS_FIRST);
+        return hitCounts;
+    }
+
+    private List<HitCount> getUniqueHitCounts(Columns snapshot, int size, long from, long to, boolean[] wanted,
+                                              int uriStride) {
+        int[] appIds = snapshot.appIds;
+        int[] uris = snapshot.uriIds;
+        long[] epochSeconds = snapshot.epochSeconds;
+        int[] ips = snapshot.ips;
+        long[] pairs = new long[size];
+        int matched = 0;
+        for (int i = 0; i < size; i++) {
+            long time = epochSeconds[i];
+            if (time >= from && time <= to && (wanted == null || wanted[uris[i]])) {
+                long key = (long) appIds[i] * uriStride + uris[i];
+                pairs[matched++] = key << 32 | (ips[i] & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(pairs, 0, matched);
+        List<HitCount> hitCounts = new ArrayList<>();
+        int i = 0;
+        while (i < matched) {
+            long key = pairs[i] >>> 32;
+            long visitors = 0;
+            long previous = pairs[i] - 1;
+            for (; i < matched && pairs[i] >>> 32 == key; i++) {
+                if (pairs[i] != previous) {
+                    visitors++;
+                    previous = pairs[i];
+                }
+            }
+            hitCounts.add(new HitCount((int) (key / uriStride), (int) (key % uriStride), visitors));
+        }
+        hitCounts.sort(HitCountAccumulator.MOST_HITS_FIRST);
+        return hitCounts;
+    }
+
+    private void append(EndpointHit hit) {
+        long time = epochSecond(hit.getTimestamp());
+        if (time < cutoff) {
+            return;
+        }
+        Columns current = columns;
+        if (current.size == current.appIds.length) {
+            current = current.grow();
+            columns = current;
+        }
+        byte[] ip = hit.getIp();
+        boolean hashed = ip.length != 4;
+        current.put(hit.getAppId(), hit.getUriId(), time, hit.getWeight(), hashed ? Arrays.hashCode(ip) : ipv4(ip),
+                hashed);
+    }
+
+    private static Columns copy(Columns from, int start, int end, long cutoff, Columns to) {
+        for (int i = start; i < end; i++) {
+            if (from.epochSeconds[i] >= cutoff) {
+                if (to.size == to.appIds.length) {
+                    to = to.grow();
+                }
+                to.put(from.appIds[i], from.uriIds[i], from.epochSeconds[i], from.weights[i], from.ips[i],
+                        from.hashedIps[i]);
+            }
+        }
+        return to;
+    }
+
+    private static int ipv4(byte[] ip) {
+        return (ip[0] & 0xFF) << 24 | (ip[1] & 0xFF) << 16 | (ip[2] & 0xFF) << 8 | (ip[3] & 0xFF);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class Columns {
+        private final int[] appIds;
+        private final int[] uriIds;
+        private final long[] epochSeconds;
+        private final int[] weights;
+        private final int[] ips;
+        private final boolean[] hashedIps;
+        private volatile int size;
+        private volatile int maxAppId;
+        private volatile int maxUriId;
+        private volatile int hashedIpCount;
+
+        private Columns(int capacity) {
+            this.appIds = new int[capacity];
+            this.uriIds = new int[capacity];
+            this.epochSeconds = new long[capacity];
+            this.weights = new int[capacity];
+            this.ips = new int[capacity];
+            this.hashedIps = new boolean[capacity];
+        }
+
+        private void put(int appId, int uriId, long epochSecond, int weight, int ip, boolean hashed) {
+            int index = size;
+            appIds[index] = appId;
+            uriIds[index] = uriId;
+            epochSeconds[index] = epochSecond;
+            weights[index] = weight;
+            ips[index] = ip;
+            hashedIps[index] = hashed;
+            if (hashed) {
+                hashedIpCount++;
+            }
+            maxAppId = Math.max(maxAppId, appId);
+            maxUriId = Math.max(maxUriId, uriId);
+            size = index + 1;
+        }
+
+        private Columns grow() {
+            Columns grown = new Columns(appIds.length * 2);
+            System.arraycopy(appIds, 0, grown.appIds, 0, size);
+            System.arraycopy(uriIds, 0, grown.uriIds, 0, size);
+            System.arraycopy(epochSeconds, 0, grown.epochSeconds, 0, size);
+            System.arraycopy(weights, 0, grown.weights, 0, size);
+            System.arraycopy(ips, 0, grown.ips, 0, size);
+            System.arraycopy(hashedIps, 0, grown.hashedIps, 0, size);
+            grown.maxAppId = maxAppId;
+            grown.maxUriId = maxUriId;
+            grown.hashedIpCount = hashedIpCount;
+            grown.size = size;
+            return grown;
+        }
+    }
+}
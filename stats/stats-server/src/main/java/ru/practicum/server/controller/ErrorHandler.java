@@ -0,0 +1,19 @@
+package ru.practicum.server.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.validation.ConstraintViolationException;
+
+@Slf4j
+@RestControllerAdvice("ru.practicum.server")
+public class ErrorHandler {
+    @ExceptionHandler(ConstraintViolationException.class)
+    private ResponseEntity<String> handleException(ConstraintViolationException e) {
+        log.info("Invalid request parameters: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
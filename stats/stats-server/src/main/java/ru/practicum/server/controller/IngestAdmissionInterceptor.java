@@ -0,0 +1,51 @@
+package ru.practicum.server.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.server.ingest.IngestLimiter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+public class IngestAdmissionInterceptor implements HandlerInterceptor {
+    private static final String ADMITTED_AT = IngestAdmissionInterceptor.class.getName() + ".admittedAt";
+
+    private final IngestLimiter limiter;
+    private final int rejectionStatus;
+    private final int retryAfterSeconds;
+
+    public IngestAdmissionInterceptor(IngestLimiter limiter,
+                                      @Value("${stats.ingest.admission.rejection-status:429}") int rejectionStatus,
+                                      @Value("${stats.ingest.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limiter = limiter;
+        this.rejectionStatus = rejectionStatus;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!limiter.isEnabled()) {
+            return true;
+        }
+        if (limiter.tryAcquire()) {
+            request.setAttribute(ADMITTED_AT, System.nanoTime());
+            return true;
+        }
+        response.setStatus(rejectionStatus);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object admittedAt = request.getAttribute(ADMITTED_AT);
+        if (admittedAt != null) {
+            request.removeAttribute(ADMITTED_AT);
+            limiter.release(System.nanoTime() - (Long) admittedAt);
+        }
+    }
+}
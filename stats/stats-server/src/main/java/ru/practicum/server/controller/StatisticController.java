@@ -1,37 +1,111 @@
 package ru.practicum.server.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.dto.CreateEndpointHitDto;
+import ru.practicum.dto.ListTimeSeriesViewStats;
+import ru.practicum.dto.ListTrendingViewStats;
 import ru.practicum.dto.ListViewStats;
 import ru.practicum.dto.ResponseEndpointHitDto;
+import ru.practicum.dto.ResponseEndpointHitsDto;
+import ru.practicum.server.model.TimeBucket;
 import ru.practicum.server.service.StatisticService;
 
-
+import javax.validation.constraints.Positive;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
+@Validated
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Slf4j
 public class StatisticController {
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final StatisticService statisticService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     public ResponseEntity<ResponseEndpointHitDto> addEndpointHit(@RequestBody CreateEndpointHitDto endpointHitDto) {
         log.info("addEndpointHit: {}", endpointHitDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(statisticService.addEndpointHit(endpointHitDto));
+        ResponseEndpointHitDto hit = statisticService.addEndpointHit(endpointHitDto);
+        if (hit.isSuppressed()) {
+            return ResponseEntity.ok(hit);
+        }
+        return ResponseEntity.status(hit.getId() == null ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(hit);
+    }
+
+    @PostMapping("/hits")
+    public ResponseEntity<ResponseEndpointHitsDto> addEndpointHits(
+            @RequestBody List<CreateEndpointHitDto> endpointHitDtos) {
+        log.info("addEndpointHits: {} hits", endpointHitDtos.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(statisticService.addEndpointHits(endpointHitDtos));
     }
 
     @GetMapping("/stats")
     public ResponseEntity<ListViewStats> getStats(@RequestParam String start,
                                                   @RequestParam String end,
                                                   @RequestParam(required = false) List<String> uris,
-                                                  @RequestParam(defaultValue = "false") Boolean unique) {
+                                                  @RequestParam(defaultValue = "false") Boolean unique,
+                                                  @RequestParam(defaultValue = "false") Boolean approx) {
         log.info("getStats");
-        return ResponseEntity.status(HttpStatus.OK).body(statisticService.getStats(start, end, uris, unique));
+        return ResponseEntity.status(HttpStatus.OK).body(statisticService.getStats(start, end, uris, unique, approx));
+    }
+
+    @GetMapping("/stats/top")
+    public ResponseEntity<ListViewStats> getTopStats(@RequestParam(defaultValue = "10") @Positive Integer n,
+                                                     @RequestParam String start,
+                                                     @RequestParam String end) {
+        log.info("getTopStats: n={}", n);
+        return ResponseEntity.status(HttpStatus.OK).body(statisticService.getTopStats(n, start, end));
+    }
+
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<ListTimeSeriesViewStats> getTimeSeries(@RequestParam String start,
+                                                                 @RequestParam String end,
+                                                                 @RequestParam(required = false) List<String> uris,
+                                                                 @RequestParam(defaultValue = "1h") TimeBucket bucket) {
+        log.info("getTimeSeries: bucket={}", bucket);
+        return ResponseEntity.status(HttpStatus.OK).body(statisticService.getTimeSeries(start, end, uris, bucket));
+    }
+
+    @GetMapping("/stats/trending")
+    public ResponseEntity<ListTrendingViewStats> getTrending(@RequestParam(defaultValue = "10") @Positive Integer n) {
+        log.info("getTrending: n={}", n);
+        return ResponseEntity.status(HttpStatus.OK).body(statisticService.getTrending(n));
+    }
+
+    @GetMapping(value = "/stats", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStats(@RequestParam String start,
+                                                             @RequestParam String end,
+                                                             @RequestParam(required = false) List<String> uris,
+                                                             @RequestParam(defaultValue = "false") Boolean unique) {
+        log.info("streamStats");
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            statisticService.streamStats(start, end, uris, unique, viewStats -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(viewStats));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
     }
 }
@@ -0,0 +1,13 @@
+package ru.practicum.server.controller;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.TimeBucket;
+
+@Component
+public class TimeBucketConverter implements Converter<String, TimeBucket> {
+    @Override
+    public TimeBucket convert(String source) {
+        return TimeBucket.fromCode(source);
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.server.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.partition.HitsExpiredEvent;
+import ru.practicum.server.sketch.HyperLogLog;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class AllTimeCounters implements EndpointHitListener {
+    private final HitStorage storage;
+    private final boolean enabled;
+    private final boolean trackUnique;
+    private final ConcurrentMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong firstHit = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastHit = new AtomicLong(Long.MIN_VALUE);
+    private volatile boolean rebuildingUnique;
+
+    public AllTimeCounters(HitStorage storage,
+                           @Value("${stats.counters.enabled:false}") boolean enabled,
+                           @Value("${stats.counters.unique:false}") boolean trackUnique) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.trackUnique = trackUnique;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long[] replayed = new long[1];
+        storage.streamAllHits(hit -> {
+            add(hit);
+            replayed[0]++;
+        });
+        log.info("Rebuilt all-time counters for {} endpoints from {} hits", counters.size(), replayed[0]);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean covers(LocalDateTime start, LocalDateTime end, boolean unique) {
+        return enabled && (!unique || trackUnique && !rebuildingUnique)
+                && epochSecond(start) <= firstHit.get() && epochSecond(end) >= lastHit.get();
+    }
+
+    public List<HitCount> getHitCounts(List<Integer> uriIds, boolean unique) {
+        Set<Integer> wanted = uriIds == null ? null : new HashSet<>(uriIds);
+        List<HitCount> hitCounts = new ArrayList<>();
+        counters.forEach((key, counter) -> {
+            int uriId = HitCountAccumulator.uriId(key);
+            long hits = counter.hits.sum();
+            if (hits > 0 && (wanted == null || wanted.contains(uriId))) {
+                hitCounts.add(new HitCount(HitCountAccumulator.appId(key), uriId,
+                        unique ? counter.uniqueEstimate() : hits));
+            }
+        });
+        hitCounts.sort(HitCountAccumulator.MOST_HITS_FIRST);
+        return hitCounts;
+    }
+
+    @Override
+    public void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (EndpointHit hit : hits) {
+            add(hit);
+        }
+    }
+
+    @EventListener
+    public void onHitsExpired(HitsExpiredEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime first = storage.getFirstHitTime();
+        if (first != null && first.isBefore(event.getBefore())) {
+            long[] removed = new long[1];
+            storage.streamHits(first, event.getBefore(), hit -> {
+                Counter counter = counters.get(HitCountAccumulator.key(hit.getAppId(), hit.getUriId()));
+                if (counter != null) {
+                    counter.hits.add(-hit.getWeight());
+                }
+                removed[0]++;
+            });
+            log.info("Removed {} expired hits from the all-time counters", removed[0]);
+        }
+        firstHit.accumulateAndGet(epochSecond(event.getBefore()), Math::max);
+        if (trackUnique) {
+            rebuildUnique(event.getBefore());
+        }
+    }
+
+    private void rebuildUnique(LocalDateTime kept) {
+        rebuildingUnique = true;
+        try {
+            counters.values().forEach(Counter::reset);
+            storage.streamAllHits(hit -> {
+                if (!hit.getTimestamp().isBefore(kept)) {
+                    Counter counter = counters.get(HitCountAccumulator.key(hit.getAppId(), hit.getUriId()));
+                    if (counter != null) {
+                        counter.addIp(hit.getIp());
+                    }
+                }
+            });
+        } finally {
+            rebuildingUnique = false;
+        }
+    }
+
+    private void add(EndpointHit hit) {
+        Counter counter = counters.computeIfAbsent(HitCountAccumulator.key(hit.getAppId(), hit.getUriId()),
+                key -> new Counter(trackUnique));
+        counter.hits.add(hit.getWeight());
+        if (trackUnique) {
+            counter.addIp(hit.getIp());
+        }
+        long second = epochSecond(hit.getTimestamp());
+        firstHit.accumulateAndGet(second, Math::min);
+        lastHit.accumulateAndGet(second, Math::max);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class Counter {
+        private final LongAdder hits = new LongAdder();
+        private HyperLogLog ips;
+
+        private Counter(boolean trackUnique) {
+            this.ips = trackUnique ? new HyperLogLog() : null;
+        }
+
+        private synchronized void addIp(byte[] ip) {
+            ips.add(ip);
+        }
+
+        private synchronized void reset() {
+            ips = new HyperLogLog();
+        }
+
+        private synchronized long uniqueEstimate() {
+            return ips.estimate();
+        }
+    }
+}
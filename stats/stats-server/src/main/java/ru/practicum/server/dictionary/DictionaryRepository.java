@@ -0,0 +1,40 @@
+package ru.practicum.server.dictionary;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void findAll(DictionaryType type, BiConsumer<Integer, String> consumer) {
+        jdbcTemplate.query("SELECT id, " + type.getColumn() + " FROM " + type.getTable(),
+                rs -> {
+                    consumer.accept(rs.getInt(1), rs.getString(2));
+                });
+    }
+
+    public Integer findId(DictionaryType type, String value) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM " + type.getTable() +
+                " WHERE " + type.getColumn() + " = ?", Integer.class, value);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public String findValue(DictionaryType type, Integer id) {
+        List<String> values = jdbcTemplate.queryForList("SELECT " + type.getColumn() + " FROM " + type.getTable() +
+                " WHERE id = ?", String.class, id);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insert(DictionaryType type, String value) {
+        jdbcTemplate.update("INSERT INTO " + type.getTable() + " (" + type.getColumn() + ") VALUES (?)", value);
+    }
+}
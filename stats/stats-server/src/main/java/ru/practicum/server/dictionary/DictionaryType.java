@@ -0,0 +1,14 @@
+package ru.practicum.server.dictionary;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum DictionaryType {
+    APP("endpoint_apps", "name"),
+    URI("endpoint_uris", "uri");
+
+    private final String table;
+    private final String column;
+}
@@ -0,0 +1,103 @@
+package ru.practicum.server.dictionary;
+
+import lombok.RequiredArgsConstructor;
+import org.mapstruct.Named;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class HitDictionary {
+    private final DictionaryRepository dictionaries;
+    private final Map<DictionaryType, Map<String, Integer>> ids = Map.of(
+            DictionaryType.APP, new ConcurrentHashMap<>(),
+            DictionaryType.URI, new ConcurrentHashMap<>());
+    private final Map<DictionaryType, Map<Integer, String>> values = Map.of(
+            DictionaryType.APP, new ConcurrentHashMap<>(),
+            DictionaryType.URI, new ConcurrentHashMap<>());
+
+    @PostConstruct
+    public void load() {
+        for (DictionaryType type : DictionaryType.values()) {
+            dictionaries.findAll(type, (id, value) -> remember(type, id, value));
+        }
+    }
+
+    @Named("appId")
+    public Integer appId(String app) {
+        return idOf(DictionaryType.APP, app);
+    }
+
+    @Named("uriId")
+    public Integer uriId(String uri) {
+        return idOf(DictionaryType.URI, uri);
+    }
+
+    @Named("appName")
+    public String app(Integer appId) {
+        return valueOf(DictionaryType.APP, appId);
+    }
+
+    @Named("uriName")
+    public String uri(Integer uriId) {
+        return valueOf(DictionaryType.URI, uriId);
+    }
+
+    public List<Integer> findUriIds(Collection<String> uris) {
+        List<Integer> uriIds = new ArrayList<>(uris.size());
+        for (String uri : uris) {
+            Integer id = ids.get(DictionaryType.URI).get(uri);
+            if (id == null) {
+                id = dictionaries.findId(DictionaryType.URI, uri);
+                if (id != null) {
+                    remember(DictionaryType.URI, id, uri);
+                }
+            }
+            if (id != null) {
+                uriIds.add(id);
+            }
+        }
+        return uriIds;
+    }
+
+    private Integer idOf(DictionaryType type, String value) {
+        Integer id = ids.get(type).get(value);
+        if (id != null) {
+            return id;
+        }
+        id = dictionaries.findId(type, value);
+        if (id == null) {
+            try {
+                dictionaries.insert(type, value);
+            } catch (DuplicateKeyException e) {
+                // inserted concurrently, the lookup below picks it up
+            }
+            id = dictionaries.findId(type, value);
+        }
+        remember(type, id, value);
+        return id;
+    }
+
+    private String valueOf(DictionaryType type, Integer id) {
+        String value = values.get(type).get(id);
+        if (value == null && id != null) {
+            value = dictionaries.findValue(type, id);
+            if (value != null) {
+                remember(type, id, value);
+            }
+        }
+        return value;
+    }
+
+    private void remember(DictionaryType type, Integer id, String value) {
+        ids.get(type).put(value, id);
+        values.get(type).put(id, value);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.server.dictionary;
+
+import org.mapstruct.Named;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class IpAddresses {
+    private static final int IPV4_LENGTH = 4;
+    private static final int IPV6_LENGTH = 16;
+    private static final byte TEXT = 0;
+    private static final byte PADDED_TEXT = 1;
+
+    private IpAddresses() {
+    }
+
+    @Named("packIp")
+    public static byte[] pack(String ip) {
+        if (ip == null) {
+            return null;
+        }
+        byte[] ipv4 = packIpv4(ip);
+        if (ipv4 != null) {
+            return ipv4;
+        }
+        byte[] ipv6 = packIpv6(ip);
+        if (ipv6 != null) {
+            return ipv6;
+        }
+        return packText(ip);
+    }
+
+    @Named("unpackIp")
+    public static String unpack(byte[] ip) {
+        if (ip == null) {
+            return null;
+        }
+        if (ip.length == IPV4_LENGTH || ip.length == IPV6_LENGTH) {
+            try {
+                return InetAddress.getByAddress(ip).getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (ip.length > 0 && ip[0] == TEXT) {
+            return new String(ip, 1, ip.length - 1, StandardCharsets.UTF_8);
+        }
+        if (ip.length > 1 && ip[0] == PADDED_TEXT) {
+            return new String(ip, 1, ip.length - 2, StandardCharsets.UTF_8);
+        }
+        return new String(ip, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] packText(String ip) {
+        byte[] text = ip.getBytes(StandardCharsets.UTF_8);
+        int length = text.length + 1;
+        boolean padded = length == IPV4_LENGTH || length == IPV6_LENGTH;
+        byte[] packed = new byte[padded ? length + 1 : length];
+        packed[0] = padded ? PADDED_TEXT : TEXT;
+        System.arraycopy(text, 0, packed, 1, text.length);
+        return packed;
+    }
+
+    private static byte[] packIpv6(String ip) {
+        int length = ip.length();
+        if (length < 2 || ip.indexOf(':') < 0) {
+            return null;
+        }
+        int[] groups = new int[IPV6_LENGTH / 2];
+        int count = 0;
+        int gap = -1;
+        int i = 0;
+        if (ip.startsWith("::")) {
+            gap = 0;
+            i = 2;
+        } else if (ip.charAt(0) == ':') {
+            return null;
+        }
+        while (i < length) {
+            int start = i;
+            int value = 0;
+            while (i < length && i - start < 4 && hexDigit(ip.charAt(i)) >= 0) {
+                value = value * 16 + hexDigit(ip.charAt(i++));
+            }
+            if (i == start) {
+                return null;
+            }
+            if (i < length && ip.charAt(i) == '.') {
+                byte[] ipv4 = count <= groups.length - 2 ? packIpv4(ip.substring(start)) : null;
+                if (ipv4 == null) {
+                    return null;
+                }
+                groups[count++] = (ipv4[0] & 0xFF) << 8 | ipv4[1] & 0xFF;
+                groups[count++] = (ipv4[2] & 0xFF) << 8 | ipv4[3] & 0xFF;
+                break;
+            }
+            if (count == groups.length) {
+                return null;
+            }
+            groups[count++] = value;
+            if (i == length) {
+                break;
+            }
+            if (ip.charAt(i++) != ':' || i == length) {
+                return null;
+            }
+            if (ip.charAt(i) == ':') {
+                if (gap >= 0) {
+                    return null;
+                }
+                gap = count;
+                i++;
+            }
+        }
+        if (gap < 0 ? count != groups.length : count == groups.length) {
+            return null;
+        }
+        byte[] packed = new byte[IPV6_LENGTH];
+        for (int group = 0; group < count; group++) {
+            int position = gap < 0 || group < gap ? group : groups.length - count + group;
+            packed[2 * position] = (byte) (groups[group] >>> 8);
+            packed[2 * position + 1] = (byte) groups[group];
+        }
+        return isIpv4Mapped(packed) ? Arrays.copyOfRange(packed, IPV6_LENGTH - IPV4_LENGTH, IPV6_LENGTH) : packed;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean isIpv4Mapped(byte[] ipv6) {
+        for (int i = 0; i < 10; i++) {
+            if (ipv6[i] != 0) {
+                return false;
+            }
+        }
+        return ipv6[10] == (byte) 0xFF && ipv6[11] == (byte) 0xFF;
+    }
+
+    private static byte[] packIpv4(String ip) {
+        byte[] packed = new byte[IPV4_LENGTH];
+        int octet = 0;
+        int value = -1;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else if (c == '.' && value >= 0 && octet < IPV4_LENGTH - 1) {
+                packed[octet++] = (byte) value;
+                value = -1;
+            } else {
+                return null;
+            }
+        }
+        if (value < 0 || octet != IPV4_LENGTH - 1) {
+            return null;
+        }
+        packed[octet] = (byte) value;
+        return packed;
+    }
+}
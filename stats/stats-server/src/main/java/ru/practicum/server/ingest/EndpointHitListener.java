@@ -0,0 +1,13 @@
+package ru.practicum.server.ingest;
+
+import ru.practicum.server.model.EndpointHit;
+
+import java.util.List;
+
+public interface EndpointHitListener {
+    void onHits(List<EndpointHit> hits);
+
+    default boolean isTransactional() {
+        return false;
+    }
+}
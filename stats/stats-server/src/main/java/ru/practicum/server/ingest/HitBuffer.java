@@ -0,0 +1,159 @@
+package ru.practicum.server.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.EndpointHit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class HitBuffer {
+    private static final long MAX_RETRY_DELAY_MS = 5000;
+
+    private final HitWriter writer;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final int shutdownRetries;
+    private final BlockingQueue<EndpointHit> queue;
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final Counter retried;
+    private final Counter lost;
+    private volatile boolean running;
+    private Thread worker;
+
+    public HitBuffer(HitWriter writer,
+                     MeterRegistry registry,
+                     @Value("${stats.ingest.mode:sync}") String mode,
+                     @Value("${stats.ingest.buffer.capacity:10000}") int capacity,
+                     @Value("${stats.ingest.buffer.batch-size:500}") int batchSize,
+                     @Value("${stats.ingest.buffer.flush-interval-ms:200}") long flushIntervalMs,
+                     @Value("${stats.ingest.buffer.offer-timeout-ms:50}") long offerTimeoutMs,
+                     @Value("${stats.ingest.buffer.shutdown-retries:5}") int shutdownRetries) {
+        this.writer = writer;
+        this.enabled = "buffered".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownRetries = shutdownRetries;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("stats.ingest.buffer.size", queue, BlockingQueue::size).register(registry);
+        this.retried = registry.counter("stats.ingest.buffer.retried");
+        this.lost = registry.counter("stats.ingest.buffer.lost");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, "hit-buffer-writer");
+        worker.start();
+        log.info("Buffered hit ingestion started: batchSize={}, flushIntervalMs={}", batchSize, flushIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean offer(EndpointHit hit) {
+        stateLock.readLock().lock();
+        try {
+            return running && queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        worker.join();
+        List<EndpointHit> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        flush(rest);
+        log.info("Buffered hit ingestion stopped, flushed {} remaining hits", rest.size());
+    }
+
+    private void drainLoop() {
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.currentTimeMillis();
+        while (running) {
+            try {
+                EndpointHit first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long now = System.currentTimeMillis();
+            if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastFlush >= flushIntervalMs)) {
+                flush(batch);
+                batch.clear();
+                lastFlush = now;
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<EndpointHit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long delay = flushIntervalMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writer.write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running && attempt > shutdownRetries) {
+                    log.error("Giving up on {} buffered hits after {} attempts during shutdown", batch.size(),
+                            attempt, e);
+                    lost.increment(batch.size());
+                    return;
+                }
+                log.warn("Failed to write {} buffered hits, retrying in {} ms", batch.size(), delay, e);
+                retried.increment(batch.size());
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+        }
+    }
+}
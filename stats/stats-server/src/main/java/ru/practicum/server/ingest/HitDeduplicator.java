@@ -0,0 +1,107 @@
+package ru.practicum.server.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.sketch.BloomFilter;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class HitDeduplicator {
+    private final boolean enabled;
+    private final long windowSeconds;
+    private final Counter suppressed;
+    private BloomFilter current;
+    private BloomFilter previous;
+    private long generation = Long.MIN_VALUE;
+
+    public HitDeduplicator(MeterRegistry registry,
+                           @Value("${stats.ingest.dedup.enabled:false}") boolean enabled,
+                           @Value("${stats.ingest.dedup.window-seconds:60}") long windowSeconds,
+                           @Value("${stats.ingest.dedup.expected-hits:1000000}") long expectedHits,
+                           @Value("${stats.ingest.dedup.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.windowSeconds = windowSeconds;
+        this.suppressed = Counter.builder("stats.ingest.dedup.suppressed").register(registry);
+        if (enabled) {
+            this.current = new BloomFilter(expectedHits, falsePositiveRate);
+            this.previous = new BloomFilter(expectedHits, falsePositiveRate);
+            log.info("Hit deduplication enabled: windowSeconds={}, expectedHits={}", windowSeconds, expectedHits);
+        }
+    }
+
+    public boolean isDuplicate(EndpointHit hit) {
+        if (!enabled) {
+            return false;
+        }
+        boolean duplicate = check(hit);
+        if (duplicate) {
+            suppressed.increment();
+        }
+        return duplicate;
+    }
+
+    public List<EndpointHit> removeDuplicates(List<EndpointHit> hits) {
+        if (!enabled) {
+            return hits;
+        }
+        List<EndpointHit> unique = new ArrayList<>(hits.size());
+        for (EndpointHit hit : hits) {
+            if (!check(hit)) {
+                unique.add(hit);
+            }
+        }
+        suppressed.increment(hits.size() - unique.size());
+        return unique;
+    }
+
+    private synchronized boolean check(EndpointHit hit) {
+        long nowGeneration = generation(LocalDateTime.now());
+        if (nowGeneration > generation) {
+            rotate(nowGeneration);
+        }
+        long hitGeneration = Math.min(generation(hit.getTimestamp()), generation);
+        byte[] key = key(hit);
+        if (hitGeneration == generation) {
+            return previous.mightContain(key) | current.put(key);
+        } else if (hitGeneration == generation - 1) {
+            return current.mightContain(key) | previous.put(key);
+        }
+        return false;
+    }
+
+    private void rotate(long hitGeneration) {
+        BloomFilter expired = previous;
+        expired.clear();
+        if (hitGeneration == generation + 1) {
+            previous = current;
+        } else {
+            current.clear();
+            previous = current;
+        }
+        current = expired;
+        generation = hitGeneration;
+    }
+
+    private long generation(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), windowSeconds);
+    }
+
+    private static byte[] key(EndpointHit hit) {
+        byte[] ip = hit.getIp();
+        return ByteBuffer.allocate(Integer.BYTES * 2 + ip.length)
+                .putInt(hit.getAppId())
+                .putInt(hit.getUriId())
+                .put(ip)
+                .array();
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.server.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.dictionary.HitDictionary;
+import ru.practicum.server.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class HitSampler {
+    private final HitBuffer buffer;
+    private final HitWriter writer;
+    private final HitDictionary dictionary;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int backlogThreshold;
+    private final int inFlightThreshold;
+    private final int maxInterval;
+    private final Counter dropped;
+    private final ConcurrentMap<Integer, AppRate> rates = new ConcurrentHashMap<>();
+    private volatile boolean overloaded;
+
+    public HitSampler(HitBuffer buffer, HitWriter writer, HitDictionary dictionary, MeterRegistry registry,
+                      @Value("${stats.ingest.sampling.enabled:false}") boolean enabled,
+                      @Value("${stats.ingest.sampling.backlog-threshold:5000}") int backlogThreshold,
+                      @Value("${stats.ingest.sampling.in-flight-threshold:64}") int inFlightThreshold,
+                      @Value("${stats.ingest.sampling.max-interval:1024}") int maxInterval) {
+        this.buffer = buffer;
+        this.writer = writer;
+        this.dictionary = dictionary;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.backlogThreshold = backlogThreshold;
+        this.inFlightThreshold = inFlightThreshold;
+        this.maxInterval = maxInterval;
+        this.dropped = Counter.builder("stats.ingest.sampling.dropped").register(registry);
+        Gauge.builder("stats.ingest.sampling.overloaded", this, sampler -> sampler.overloaded ? 1 : 0)
+                .register(registry);
+    }
+
+    public boolean sample(EndpointHit hit) {
+        if (!enabled) {
+            return true;
+        }
+        AppRate rate = rate(hit.getAppId());
+        rate.arrivals.increment();
+        int interval = rate.interval;
+        if (interval == 1) {
+            return true;
+        }
+        if (ThreadLocalRandom.current().nextInt(interval) != 0) {
+            dropped.increment();
+            return false;
+        }
+        hit.setWeight(interval);
+        return true;
+    }
+
+    public List<EndpointHit> sample(List<EndpointHit> hits) {
+        if (!enabled) {
+            return hits;
+        }
+        List<EndpointHit> sampled = new ArrayList<>(hits.size());
+        for (EndpointHit hit : hits) {
+            if (sample(hit)) {
+                sampled.add(hit);
+            }
+        }
+        return sampled;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.ingest.sampling.adjust-interval-ms:1000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+        int backlog = buffer.size();
+        int inFlight = writer.getInFlight();
+        boolean wasOverloaded = overloaded;
+        overloaded = backlog > backlogThreshold || inFlight > inFlightThreshold;
+        boolean recovered = backlog <= backlogThreshold / 2 && inFlight <= inFlightThreshold / 2;
+        long total = 0;
+        int active = 0;
+        for (AppRate rate : rates.values()) {
+            rate.lastArrivals = rate.arrivals.sumThenReset();
+            total += rate.lastArrivals;
+            active += rate.lastArrivals > 0 ? 1 : 0;
+        }
+        long fairShare = active == 0 ? 0 : total / active;
+        for (AppRate rate : rates.values()) {
+            if (overloaded && rate.lastArrivals > 0 && rate.lastArrivals >= fairShare) {
+                rate.interval = Math.min(maxInterval, rate.interval * 2);
+            } else if (recovered && rate.interval > 1) {
+                rate.interval = rate.interval / 2;
+            }
+        }
+        if (overloaded != wasOverloaded) {
+            log.warn("Hit ingestion {} overload: backlog={}, inFlight={}", overloaded ? "entered" : "left",
+                    backlog, inFlight);
+        }
+    }
+
+    private AppRate rate(int appId) {
+        AppRate rate = rates.get(appId);
+        if (rate == null) {
+            rate = rates.computeIfAbsent(appId, id -> {
+                AppRate created = new AppRate();
+                Gauge.builder("stats.ingest.sampling.interval", created, r -> r.interval)
+                        .tag("app", dictionary.app(id))
+                        .register(registry);
+                return created;
+            });
+        }
+        return rate;
+    }
+
+    private static final class AppRate {
+        private final LongAdder arrivals = new LongAdder();
+        private volatile int interval = 1;
+        private long lastArrivals;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.server.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.storage.HitStorage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class HitWriter {
+    private final HitStorage storage;
+    private final List<EndpointHitListener> listeners;
+    private final TransactionTemplate transactions;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public HitWriter(HitStorage storage,
+                     List<EndpointHitListener> listeners,
+                     PlatformTransactionManager transactionManager) {
+        this.storage = storage;
+        this.listeners = listeners;
+        this.transactions = storage.isRelational() ? new TransactionTemplate(transactionManager) : null;
+    }
+
+    public EndpointHit save(EndpointHit hit) {
+        inFlight.incrementAndGet();
+        try {
+            return inTransaction(() -> {
+                EndpointHit saved = storage.save(hit);
+                notifyListeners(List.of(saved));
+                return saved;
+            });
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public void write(List<EndpointHit> hits) {
+        if (!hits.isEmpty()) {
+            inFlight.incrementAndGet();
+            try {
+                inTransaction(() -> {
+                    storage.saveAll(hits);
+                    notifyListeners(hits);
+                    return null;
+                });
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactions == null ? work.get() : transactions.execute(status -> work.get());
+    }
+
+    private void notifyListeners(List<EndpointHit> hits) {
+        for (EndpointHitListener listener : listeners) {
+            if (listener.isTransactional()) {
+                listener.onHits(hits);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyCommitted(hits);
+                }
+            });
+        } else {
+            notifyCommitted(hits);
+        }
+    }
+
+    private void notifyCommitted(List<EndpointHit> hits) {
+        for (EndpointHitListener listener : listeners) {
+            if (!listener.isTransactional()) {
+                try {
+                    listener.onHits(hits);
+                } catch (RuntimeException e) {
+                    log.warn("{} failed to apply {} committed hits", listener.getClass().getSimpleName(), hits.size(),
+                            e);
+                }
+            }
+        }
+    }
+}
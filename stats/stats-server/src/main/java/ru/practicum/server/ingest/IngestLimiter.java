@@ -0,0 +1,106 @@
+package ru.practicum.server.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class IngestLimiter {
+    private static final int BASELINE_RESET_WINDOWS = 10;
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final boolean enabled;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final int windowSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+    private long baselineNanos;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private long windowSumNanos;
+    private int windowCount;
+    private int windowPeak;
+    private int windows;
+
+    public IngestLimiter(MeterRegistry registry,
+                         @Value("${stats.ingest.admission.enabled:false}") boolean enabled,
+                         @Value("${stats.ingest.admission.limit:8}") int limit,
+                         @Value("${stats.ingest.admission.adaptive:false}") boolean adaptive,
+                         @Value("${stats.ingest.admission.min-limit:2}") int minLimit,
+                         @Value("${stats.ingest.admission.max-limit:64}") int maxLimit,
+                         @Value("${stats.ingest.admission.latency-tolerance:2.0}") double latencyTolerance,
+                         @Value("${stats.ingest.admission.window-size:100}") int windowSize) {
+        this.enabled = enabled;
+        this.adaptive = adaptive;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.windowSize = windowSize;
+        this.limit = limit;
+        this.rejected = Counter.builder("stats.ingest.admission.rejected").register(registry);
+        Gauge.builder("stats.ingest.admission.in-flight", inFlight, AtomicInteger::get).register(registry);
+        Gauge.builder("stats.ingest.admission.limit", this, limiter -> limiter.limit).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (adaptive) {
+            adjust(latencyNanos, current);
+        }
+    }
+
+    private synchronized void adjust(long latencyNanos, int concurrency) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        windowSumNanos += latencyNanos;
+        windowPeak = Math.max(windowPeak, concurrency);
+        if (++windowCount < windowSize) {
+            return;
+        }
+        long averageNanos = windowSumNanos / windowCount;
+        if (baselineNanos == 0 || ++windows % BASELINE_RESET_WINDOWS == 0) {
+            baselineNanos = windowMinNanos;
+        } else {
+            baselineNanos = Math.min(baselineNanos, windowMinNanos);
+        }
+        double previous = limit;
+        if (averageNanos > baselineNanos * latencyTolerance) {
+            limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+        } else if (windowPeak >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        if ((int) previous != (int) limit) {
+            log.debug("Ingest concurrency limit {} -> {}: average={}us, baseline={}us", (int) previous, (int) limit,
+                    averageNanos / 1000, baselineNanos / 1000);
+        }
+        windowMinNanos = Long.MAX_VALUE;
+        windowSumNanos = 0;
+        windowCount = 0;
+        windowPeak = 0;
+    }
+}
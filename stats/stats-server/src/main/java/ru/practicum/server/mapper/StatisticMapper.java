@@ -4,16 +4,54 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.dto.CreateEndpointHitDto;
 import ru.practicum.dto.ResponseEndpointHitDto;
+import ru.practicum.dto.TimeSeriesViewStats;
+import ru.practicum.dto.TrendingViewStats;
+import ru.practicum.dto.ViewStats;
+import ru.practicum.server.dictionary.HitDictionary;
+import ru.practicum.server.dictionary.IpAddresses;
+import ru.practicum.server.model.BucketHitCount;
 import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TrendingHitCount;
 
+import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = {HitDictionary.class, IpAddresses.class})
 public interface StatisticMapper {
 
+    @Mapping(source = "app", target = "appId", qualifiedByName = "appId")
+    @Mapping(source = "uri", target = "uriId", qualifiedByName = "uriId")
+    @Mapping(source = "ip", target = "ip", qualifiedByName = "packIp")
     @Mapping(source = "timestamp", target = "timestamp", dateFormat = "yyyy-MM-dd HH:mm:ss")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "weight", ignore = true)
     EndpointHit mapToEndpointHit(CreateEndpointHitDto createEndpointHitDto);
 
+    @Mapping(source = "appId", target = "app", qualifiedByName = "appName")
+    @Mapping(source = "uriId", target = "uri", qualifiedByName = "uriName")
+    @Mapping(source = "ip", target = "ip", qualifiedByName = "unpackIp")
     @Mapping(source = "timestamp", target = "timestamp", dateFormat = "yyyy-MM-dd HH:mm:ss")
+    @Mapping(target = "suppressed", ignore = true)
     ResponseEndpointHitDto mapToResponseEndpointHitDto(EndpointHit endpointHit);
-}
 
+    List<EndpointHit> mapToEndpointHits(List<CreateEndpointHitDto> createEndpointHitDtos);
+
+    @Mapping(source = "appId", target = "app", qualifiedByName = "appName")
+    @Mapping(source = "uriId", target = "uri", qualifiedByName = "uriName")
+    ViewStats mapToViewStats(HitCount hitCount);
+
+    List<ViewStats> mapToViewStats(List<HitCount> hitCounts);
+
+    @Mapping(source = "appId", target = "app", qualifiedByName = "appName")
+    @Mapping(source = "uriId", target = "uri", qualifiedByName = "uriName")
+    @Mapping(source = "bucket", target = "bucket", dateFormat = "yyyy-MM-dd HH:mm:ss")
+    TimeSeriesViewStats mapToTimeSeriesViewStats(BucketHitCount bucketHitCount);
+
+    List<TimeSeriesViewStats> mapToTimeSeriesViewStats(List<BucketHitCount> bucketHitCounts);
+
+    @Mapping(source = "appId", target = "app", qualifiedByName = "appName")
+    @Mapping(source = "uriId", target = "uri", qualifiedByName = "uriName")
+    TrendingViewStats mapToTrendingViewStats(TrendingHitCount trendingHitCount);
+
+    List<TrendingViewStats> mapToTrendingViewStats(List<TrendingHitCount> trendingHitCounts);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.server.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BucketHitCount {
+    private Integer appId;
+    private Integer uriId;
+    private LocalDateTime bucket;
+    private Long hits;
+}
@@ -9,17 +9,19 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "statistics")
+@Table(name = "endpoint_hits")
 public class EndpointHit {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
     @Column(nullable = false)
-    private String app;
-    @Column(nullable = false)
-    private String uri;
-    @Column(nullable = false)
-    private String ip;
+    private byte[] ip;
     @Column(nullable = false)
     private LocalDateTime timestamp;
+    @Column(nullable = false)
+    private Integer weight = 1;
 }
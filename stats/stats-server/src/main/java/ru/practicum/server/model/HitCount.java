@@ -0,0 +1,12 @@
+package ru.practicum.server.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class HitCount {
+    private Integer appId;
+    private Integer uriId;
+    private Long hits;
+}
@@ -0,0 +1,45 @@
+package ru.practicum.server.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HitCountAccumulator {
+    public static final Comparator<HitCount> MOST_HITS_FIRST = Comparator
+            .comparing(HitCount::getHits, Comparator.reverseOrder())
+            .thenComparing(HitCount::getUriId)
+            .thenComparing(HitCount::getAppId);
+
+    private final Map<Long, HitCount> counts = new HashMap<>();
+
+    public void add(int appId, int uriId, long hits) {
+        HitCount count = counts.computeIfAbsent(key(appId, uriId), key -> new HitCount(appId, uriId, 0L));
+        count.setHits(count.getHits() + hits);
+    }
+
+    public void addAll(List<HitCount> hitCounts) {
+        for (HitCount hitCount : hitCounts) {
+            add(hitCount.getAppId(), hitCount.getUriId(), hitCount.getHits());
+        }
+    }
+
+    public List<HitCount> sorted() {
+        List<HitCount> sorted = new ArrayList<>(counts.values());
+        sorted.sort(MOST_HITS_FIRST);
+        return sorted;
+    }
+
+    public static long key(int appId, int uriId) {
+        return ((long) appId << Integer.SIZE) | (uriId & 0xffffffffL);
+    }
+
+    public static int appId(long key) {
+        return (int) (key >>> Integer.SIZE);
+    }
+
+    public static int uriId(long key) {
+        return (int) key;
+    }
+}
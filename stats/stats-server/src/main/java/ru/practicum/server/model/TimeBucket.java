@@ -0,0 +1,32 @@
+package ru.practicum.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum TimeBucket {
+    MINUTE("1m", "minute", ChronoUnit.MINUTES),
+    HOUR("1h", "hour", ChronoUnit.HOURS),
+    DAY("1d", "day", ChronoUnit.DAYS);
+
+    private final String code;
+    private final String unitName;
+    private final ChronoUnit unit;
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public static TimeBucket fromCode(String code) {
+        for (TimeBucket bucket : values()) {
+            if (bucket.code.equals(code)) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Unknown time bucket: " + code);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.server.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TrendingHitCount {
+    private Integer appId;
+    private Integer uriId;
+    private Long hits;
+    private Double velocity;
+}
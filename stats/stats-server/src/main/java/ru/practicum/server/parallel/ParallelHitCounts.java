@@ -0,0 +1,186 @@
+package ru.practicum.server.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class ParallelHitCounts {
+    private final HitStorage storage;
+    private final boolean enabled;
+    private final ChronoUnit unit;
+    private final Duration minRange;
+    private final int maxPieces;
+    private final long maxVisitors;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelHitCounts(HitStorage storage,
+                             @Value("${stats.parallel.enabled:false}") boolean enabled,
+                             @Value("${stats.parallel.threads:8}") int threads,
+                             @Value("${stats.parallel.queue-capacity:1024}") int queueCapacity,
+                             @Value("${stats.parallel.split:day}") String split,
+                             @Value("${stats.parallel.min-range:7d}") Duration minRange,
+                             @Value("${stats.parallel.max-pieces:64}") int maxPieces,
+                             @Value("${stats.parallel.max-unique-visitors:1000000}") long maxVisitors) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.unit = "month".equalsIgnoreCase(split) ? ChronoUnit.MONTHS : ChronoUnit.DAYS;
+        this.minRange = minRange;
+        this.maxPieces = maxPieces;
+        this.maxVisitors = maxVisitors;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stats-parallel-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        return enabled && Duration.between(start, end).compareTo(minRange) >= 0;
+    }
+
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                       boolean unique) {
+        LocalDateTime first = storage.getFirstHitTime();
+        LocalDateTime last = storage.getLastHitTime();
+        if (first == null || last == null || first.isAfter(end) || last.isBefore(start)) {
+            return Collections.emptyList();
+        }
+        LocalDateTime from = first.isAfter(start) ? first : start;
+        LocalDateTime to = last.isBefore(end) ? last : end;
+        List<LocalDateTime[]> ranges = split(from, to);
+        if (ranges.size() < 2) {
+            return storage.getHitCounts(start, end, uriIds, unique);
+        }
+        if (unique) {
+            List<HitCount> hitCounts = getUniqueHitCounts(ranges, uriIds);
+            if (hitCounts == null) {
+                log.info("More than {} distinct visitors between {} and {}, counting them in one query",
+                        maxVisitors, start, end);
+                return storage.getHitCounts(start, end, uriIds, true);
+            }
+            return hitCounts;
+        }
+        List<Future<List<HitCount>>> partials = new ArrayList<>(ranges.size());
+        for (LocalDateTime[] range : ranges) {
+            partials.add(executor.submit(() -> storage.getHitCounts(range[0], range[1], uriIds, false)));
+        }
+        HitCountAccumulator hits = new HitCountAccumulator();
+        for (Future<List<HitCount>> partial : partials) {
+            hits.addAll(join(partial));
+        }
+        return hits.sorted();
+    }
+
+    private List<HitCount> getUniqueHitCounts(List<LocalDateTime[]> ranges, List<Integer> uriIds) {
+        AtomicLong visitorBudget = new AtomicLong(maxVisitors);
+        List<Future<Map<Long, Set<ByteBuffer>>>> partials = new ArrayList<>(ranges.size());
+        for (LocalDateTime[] range : ranges) {
+            partials.add(executor.submit(() -> getVisitors(range[0], range[1], uriIds, visitorBudget)));
+        }
+        Map<Long, Set<ByteBuffer>> visitors = new HashMap<>();
+        try {
+            for (Future<Map<Long, Set<ByteBuffer>>> partial : partials) {
+                join(partial).forEach((key, ips) -> visitors.merge(key, ips, (merged, more) -> {
+                    merged.addAll(more);
+                    return merged;
+                }));
+            }
+        } catch (VisitorLimitExceededException e) {
+            partials.forEach(partial -> partial.cancel(true));
+            return null;
+        }
+        HitCountAccumulator hits = new HitCountAccumulator();
+        visitors.forEach((key, ips) ->
+                hits.add(HitCountAccumulator.appId(key), HitCountAccumulator.uriId(key), ips.size()));
+        return hits.sorted();
+    }
+
+    private Map<Long, Set<ByteBuffer>> getVisitors(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                   AtomicLong visitorBudget) {
+        Map<Long, Set<ByteBuffer>> visitors = new HashMap<>();
+        storage.streamVisitors(start, end, uriIds, visitor -> {
+            if (visitorBudget.decrementAndGet() < 0) {
+                throw new VisitorLimitExceededException();
+            }
+            visitors.computeIfAbsent(HitCountAccumulator.key(visitor.getAppId(), visitor.getUriId()),
+                    key -> new HashSet<>()).add(ByteBuffer.wrap(visitor.getIp()));
+        });
+        return visitors;
+    }
+
+    private List<LocalDateTime[]> split(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime firstBoundary = floor(start);
+        long units = unit.between(firstBoundary, end) + 1;
+        long step = Math.max(1, (units + maxPieces - 1) / maxPieces);
+        List<LocalDateTime[]> ranges = new ArrayList<>();
+        LocalDateTime from = start;
+        LocalDateTime boundary = firstBoundary;
+        while (!from.isAfter(end)) {
+            boundary = boundary.plus(step, unit);
+            LocalDateTime to = boundary.minus(1, ChronoUnit.MICROS);
+            ranges.add(new LocalDateTime[]{from, to.isAfter(end) ? end : to});
+            from = boundary;
+        }
+        return ranges;
+    }
+
+    private LocalDateTime floor(LocalDateTime time) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return unit == ChronoUnit.MONTHS ? day.withDayOfMonth(1) : day;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aggregating stats", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static class VisitorLimitExceededException extends RuntimeException {
+        VisitorLimitExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
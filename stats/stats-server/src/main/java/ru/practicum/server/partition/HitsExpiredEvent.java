@@ -0,0 +1,10 @@
+package ru.practicum.server.partition;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class HitsExpiredEvent {
+    LocalDateTime before;
+}
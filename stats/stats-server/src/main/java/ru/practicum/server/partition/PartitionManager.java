@@ -0,0 +1,170 @@
+package ru.practicum.server.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class PartitionManager {
+    private static final String PARTITION_PREFIX = "endpoint_hits_p";
+    private static final String DEFAULT_PARTITION = "endpoint_hits_default";
+    private static final String UNPARTITIONED = "endpoint_hits_unpartitioned";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COLUMNS = "id, app_id, uri_id, ip, timestamp, weight";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactions;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean detach;
+
+    public PartitionManager(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher events,
+                            @Value("${stats.partitioning.enabled:false}") boolean enabled,
+                            @Value("${stats.partitioning.months-ahead:3}") int monthsAhead,
+                            @Value("${stats.partitioning.retention-months:24}") int retentionMonths,
+                            @Value("${stats.partitioning.retention-action:drop}") String retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.enabled = enabled && isPostgres(jdbcTemplate);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.detach = "detach".equalsIgnoreCase(retentionAction);
+        if (enabled && !this.enabled) {
+            log.warn("Partitioning of endpoint_hits is only supported on PostgreSQL, ignoring stats.partitioning.enabled");
+        }
+    }
+
+    @PostConstruct
+    public void prepare() {
+        if (!enabled) {
+            return;
+        }
+        if (!isPartitioned()) {
+            transactions.executeWithoutResult(status -> convertPlainTable());
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF endpoint_hits DEFAULT");
+        maintain();
+    }
+
+    @Scheduled(cron = "${stats.partitioning.cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        List<Timestamp> stranded = jdbcTemplate.queryForList("SELECT DISTINCT DATE_TRUNC('month', timestamp) FROM " +
+                DEFAULT_PARTITION, Timestamp.class);
+        for (Timestamp month : stranded) {
+            createPartition(YearMonth.from(month.toLocalDateTime()));
+        }
+        if (retentionMonths > 0) {
+            removeExpiredPartitions(current.minusMonths(retentionMonths));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(SUFFIX);
+        if (tableExists(partition)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String range = "timestamp >= '" + from + "' AND timestamp < '" + to + "'";
+        Integer moved = transactions.execute(status -> {
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF endpoint_hits FOR VALUES FROM ('" +
+                    from + "') TO ('" + to + "')");
+            int rows = jdbcTemplate.update("INSERT INTO " + partition + " (" + COLUMNS + ") SELECT " + COLUMNS +
+                    " FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            return rows;
+        });
+        log.info("Created partition {}, moved {} rows into it from {}", partition, moved, DEFAULT_PARTITION);
+    }
+
+    private void convertPlainTable() {
+        log.info("Converting the existing endpoint_hits table into a partitioned table");
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits RENAME TO " + UNPARTITIONED);
+        jdbcTemplate.execute("ALTER TABLE " + UNPARTITIONED + " RENAME CONSTRAINT endpoint_hits_pkey TO " +
+                UNPARTITIONED + "_pkey");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS endpoint_hits_timestamp_idx RENAME TO " + UNPARTITIONED +
+                "_timestamp_idx");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS endpoint_hits_uri_timestamp_idx RENAME TO " + UNPARTITIONED +
+                "_uri_timestamp_idx");
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS endpoint_hits_id_seq RENAME TO " + UNPARTITIONED + "_id_seq");
+        new ResourceDatabasePopulator(new ClassPathResource("schema-partitioned.sql"))
+                .execute(jdbcTemplate.getDataSource());
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF endpoint_hits DEFAULT");
+        int rows = jdbcTemplate.update("INSERT INTO endpoint_hits (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " +
+                UNPARTITIONED);
+        jdbcTemplate.execute("SELECT setval('endpoint_hits_id_seq', COALESCE((SELECT MAX(id) FROM endpoint_hits), 0) + 1, " +
+                "false)");
+        jdbcTemplate.execute("DROP TABLE " + UNPARTITIONED);
+        log.info("Copied {} rows into the partitioned endpoint_hits table", rows);
+    }
+
+    private void removeExpiredPartitions(YearMonth oldestKept) {
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'endpoint_hits'::regclass AND c.relname LIKE '" + PARTITION_PREFIX + "%'",
+                String.class);
+        List<String> expired = partitions.stream()
+                .filter(partition -> YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX)
+                        .isBefore(oldestKept))
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+        events.publishEvent(new HitsExpiredEvent(oldestKept.atDay(1).atStartOfDay()));
+        for (String partition : expired) {
+            if (detach) {
+                jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + partition);
+                log.info("Detached expired partition {} for archiving", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped expired partition {}", partition);
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table " +
+                "WHERE partrelid = to_regclass('endpoint_hits'))", Boolean.class));
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                table));
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        return "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+    }
+}
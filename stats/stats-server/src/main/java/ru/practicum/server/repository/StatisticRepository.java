@@ -4,48 +4,54 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.dto.ViewStats;
 import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
 
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface StatisticRepository extends JpaRepository<EndpointHit, Long> {
-    @Query("SELECT new ru.practicum.dto.ViewStats(vs.app, vs.uri, COUNT(vs.ip)) " +
+public interface StatisticRepository extends JpaRepository<EndpointHit, Long>, StatisticRepositoryCustom {
+    @Query("SELECT MIN(vs.timestamp) FROM EndpointHit AS vs")
+    LocalDateTime findFirstHitTime();
+
+    @Query("SELECT MAX(vs.timestamp) FROM EndpointHit AS vs")
+    LocalDateTime findLastHitTime();
+
+    @Query("SELECT new ru.practicum.server.model.HitCount(vs.appId, vs.uriId, SUM(vs.weight)) " +
             "FROM EndpointHit AS vs " +
             "WHERE vs.timestamp BETWEEN :start AND :end " +
-            "GROUP BY vs.app, vs.uri " +
-            "ORDER BY COUNT(vs.ip) DESC")
-    List<ViewStats> getViewStatsByStartAndEndTime(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+            "GROUP BY vs.appId, vs.uriId " +
+            "ORDER BY SUM(vs.weight) DESC")
+    List<HitCount> getViewStatsByStartAndEndTime(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @Query("SELECT new ru.practicum.dto.ViewStats(vs.app, vs.uri, COUNT(vs.ip)) " +
+    @Query("SELECT new ru.practicum.server.model.HitCount(vs.appId, vs.uriId, SUM(vs.weight)) " +
             "FROM EndpointHit AS vs " +
             "WHERE vs.timestamp BETWEEN :start AND :end " +
-            "AND vs.uri IN :uris " +
-            "GROUP BY vs.app, vs.uri " +
-            "ORDER BY COUNT(vs.ip) DESC")
-    List<ViewStats> getUrisViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
-                                                      @Param("end") LocalDateTime end,
-                                                      @Param("uris") List<String> uris);
-
-    @Query("SELECT new ru.practicum.dto.ViewStats(vs.app, vs.uri, COUNT(DISTINCT vs.ip)) " +
+            "AND vs.uriId IN :uriIds " +
+            "GROUP BY vs.appId, vs.uriId " +
+            "ORDER BY SUM(vs.weight) DESC")
+    List<HitCount> getUrisViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end,
+                                                     @Param("uriIds") List<Integer> uriIds);
+
+    @Query("SELECT new ru.practicum.server.model.HitCount(vs.appId, vs.uriId, COUNT(DISTINCT vs.ip)) " +
             "FROM EndpointHit AS vs " +
             "WHERE vs.timestamp BETWEEN :start AND :end " +
-            "GROUP BY vs.app, vs.uri " +
+            "GROUP BY vs.appId, vs.uriId " +
             "ORDER BY COUNT(DISTINCT vs.ip) DESC")
-    List<ViewStats> getUniqueViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
-                                                        @Param("end") LocalDateTime end);
+    List<HitCount> getUniqueViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
 
-    @Query("SELECT new ru.practicum.dto.ViewStats(vs.app, vs.uri, COUNT(DISTINCT vs.ip)) " +
+    @Query("SELECT new ru.practicum.server.model.HitCount(vs.appId, vs.uriId, COUNT(DISTINCT vs.ip)) " +
             "FROM EndpointHit AS vs " +
             "WHERE vs.timestamp BETWEEN :start AND :end " +
-            "AND vs.uri IN :uris " +
-            "GROUP BY vs.app, vs.uri " +
+            "AND vs.uriId IN :uriIds " +
+            "GROUP BY vs.appId, vs.uriId " +
             "ORDER BY COUNT(DISTINCT vs.ip) DESC")
-    List<ViewStats> getUniqueUrisViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
-                                                            @Param("end") LocalDateTime end,
-                                                            @Param("uris") List<String> uris);
+    List<HitCount> getUniqueUrisViewStatsByStartAndEndTime(@Param("start") LocalDateTime start,
+                                                           @Param("end") LocalDateTime end,
+                                                           @Param("uriIds") List<Integer> uriIds);
 }
 
@@ -0,0 +1,26 @@
+package ru.practicum.server.repository;
+
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TimeBucket;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StatisticRepositoryCustom {
+    void saveAllInBatch(List<EndpointHit> hits);
+
+    void streamHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique,
+                         Consumer<HitCount> consumer);
+
+    List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                            TimeBucket bucket);
+
+    void streamHits(LocalDateTime from, LocalDateTime to, Consumer<EndpointHit> consumer);
+
+    void streamAllHits(Consumer<EndpointHit> consumer);
+
+    void streamVisitors(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, Consumer<EndpointHit> consumer);
+}
@@ -0,0 +1,137 @@
+package ru.practicum.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TimeBucket;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class StatisticRepositoryCustomImpl implements StatisticRepositoryCustom {
+    private static final String INSERT_HIT = "INSERT INTO endpoint_hits (app_id, uri_id, ip, timestamp, weight) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_HITS = "SELECT id, app_id, uri_id, ip, timestamp, weight FROM endpoint_hits";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final int batchSize;
+
+    public StatisticRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                         @Value("${stats.ingest.batch-size:500}") int batchSize,
+                                         @Value("${stats.stream.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(fetchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void saveAllInBatch(List<EndpointHit> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, batchSize, (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setBytes(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+            ps.setInt(5, hit.getWeight());
+        });
+    }
+
+    @Override
+    public void streamHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique,
+                                Consumer<HitCount> consumer) {
+        String hits = unique ? "COUNT(DISTINCT ip)" : "SUM(weight)";
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "start", Timestamp.valueOf(start),
+                "end", Timestamp.valueOf(end)));
+        String sql = "SELECT app_id, uri_id, " + hits + " AS hits FROM endpoint_hits " +
+                "WHERE timestamp BETWEEN :start AND :end";
+        if (uriIds != null) {
+            sql += " AND uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        sql += " GROUP BY app_id, uri_id ORDER BY " + hits + " DESC";
+        streamingJdbcTemplate.query(sql, parameters, rs -> {
+            consumer.accept(new HitCount(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+        });
+    }
+
+    @Override
+    public List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                   TimeBucket bucket) {
+        String truncated = "DATE_TRUNC('" + bucket.getUnitName() + "', timestamp)";
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "start", Timestamp.valueOf(start),
+                "end", Timestamp.valueOf(end)));
+        String sql = "SELECT app_id, uri_id, " + truncated + " AS time_bucket, SUM(weight) AS hits " +
+                "FROM endpoint_hits WHERE timestamp BETWEEN :start AND :end";
+        if (uriIds != null) {
+            sql += " AND uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        sql += " GROUP BY uri_id, app_id, " + truncated + " ORDER BY uri_id, app_id, " + truncated;
+        return streamingJdbcTemplate.query(sql, parameters, (rs, rowNum) -> new BucketHitCount(rs.getInt("app_id"),
+                rs.getInt("uri_id"), rs.getTimestamp("time_bucket").toLocalDateTime(), rs.getLong("hits")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamHits(LocalDateTime from, LocalDateTime to, Consumer<EndpointHit> consumer) {
+        streamingJdbcTemplate.query(SELECT_HITS + " WHERE timestamp >= :from AND timestamp < :to", Map.of(
+                "from", Timestamp.valueOf(from),
+                "to", Timestamp.valueOf(to)), rs -> {
+            consumer.accept(mapHit(rs));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllHits(Consumer<EndpointHit> consumer) {
+        streamingJdbcTemplate.query(SELECT_HITS, Map.of(), rs -> {
+            consumer.accept(mapHit(rs));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamVisitors(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                               Consumer<EndpointHit> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "start", Timestamp.valueOf(start),
+                "end", Timestamp.valueOf(end)));
+        String sql = "SELECT DISTINCT app_id, uri_id, ip FROM endpoint_hits WHERE timestamp BETWEEN :start AND :end";
+        if (uriIds != null) {
+            sql += " AND uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        streamingJdbcTemplate.query(sql, parameters, rs -> {
+            EndpointHit visitor = new EndpointHit();
+            visitor.setAppId(rs.getInt("app_id"));
+            visitor.setUriId(rs.getInt("uri_id"));
+            visitor.setIp(rs.getBytes("ip"));
+            consumer.accept(visitor);
+        });
+    }
+
+    private static EndpointHit mapHit(ResultSet rs) throws SQLException {
+        EndpointHit hit = new EndpointHit();
+        hit.setId(rs.getLong("id"));
+        hit.setAppId(rs.getInt("app_id"));
+        hit.setUriId(rs.getInt("uri_id"));
+        hit.setIp(rs.getBytes("ip"));
+        hit.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        hit.setWeight(rs.getInt("weight"));
+        return hit;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class WatermarkRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long find(String name) {
+        List<Long> hitIds = jdbcTemplate.queryForList("SELECT hit_id FROM endpoint_hits_watermarks WHERE name = ?",
+                Long.class, name);
+        return hitIds.isEmpty() ? null : hitIds.get(0);
+    }
+
+    public void save(String name, long hitId) {
+        if (jdbcTemplate.update("UPDATE endpoint_hits_watermarks SET hit_id = ? WHERE name = ?", hitId, name) == 0) {
+            jdbcTemplate.update("INSERT INTO endpoint_hits_watermarks (name, hit_id) VALUES (?, ?)", name, hitId);
+        }
+    }
+
+    public void advance(String name, long hitId) {
+        jdbcTemplate.update("UPDATE endpoint_hits_watermarks SET hit_id = GREATEST(hit_id, ?) WHERE name = ?",
+                hitId, name);
+    }
+
+    public void advanceToLastHit(String name) {
+        jdbcTemplate.update("UPDATE endpoint_hits_watermarks SET hit_id = " +
+                "GREATEST(hit_id, (SELECT COALESCE(MAX(id), 0) FROM endpoint_hits)) WHERE name = ?", name);
+    }
+
+    public long findLastHitId() {
+        Long hitId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM endpoint_hits", Long.class);
+        return hitId == null ? 0 : hitId;
+    }
+}
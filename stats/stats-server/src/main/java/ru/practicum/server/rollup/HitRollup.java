@@ -0,0 +1,167 @@
+package ru.practicum.server.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.model.TimeBucket;
+import ru.practicum.server.repository.WatermarkRepository;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class HitRollup implements EndpointHitListener {
+    private static final String WATERMARK = "rollup";
+    private static final Comparator<RollupRow> ROW_ORDER = Comparator.comparing(RollupRow::getBucket)
+            .thenComparing(RollupRow::getAppId)
+            .thenComparing(RollupRow::getUriId);
+    private static final Comparator<BucketHitCount> BUCKET_ORDER = Comparator.comparing(BucketHitCount::getUriId)
+            .thenComparing(BucketHitCount::getAppId)
+            .thenComparing(BucketHitCount::getBucket);
+
+    private final RollupRepository rollups;
+    private final WatermarkRepository watermarks;
+    private final TransactionTemplate transactions;
+    private final boolean enabled;
+
+    public HitRollup(RollupRepository rollups, WatermarkRepository watermarks, HitStorage storage,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${stats.rollup.enabled:false}") boolean enabled) {
+        this.rollups = rollups;
+        this.watermarks = watermarks;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.enabled = enabled && storage.isRelational();
+        if (enabled && !this.enabled) {
+            log.warn("Rollups are built from the endpoint_hits table, ignoring stats.rollup.enabled");
+        }
+    }
+
+    @PostConstruct
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        transactions.executeWithoutResult(status -> {
+            Long watermark = watermarks.find(WATERMARK);
+            long lastHitId = watermarks.findLastHitId();
+            if (watermark != null && watermark >= lastHitId) {
+                return;
+            }
+            for (RollupLevel level : RollupLevel.values()) {
+                if (watermark == null) {
+                    rollups.clear(level);
+                }
+                List<RollupRow> rows = rollups.findHitsAfter(level, watermark == null ? 0 : watermark, lastHitId);
+                rows.sort(ROW_ORDER);
+                rollups.addHits(level, rows);
+                log.info("Backfilled {} rows into {} from hits after id {}", rows.size(), level.getTable(),
+                        watermark == null ? 0 : watermark);
+            }
+            watermarks.save(WATERMARK, lastHitId);
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (RollupLevel level : RollupLevel.values()) {
+            Map<RollupRow, Long> counts = new HashMap<>();
+            for (EndpointHit hit : hits) {
+                counts.merge(new RollupRow(hit.getAppId(), hit.getUriId(), level.floor(hit.getTimestamp()), 0L),
+                        (long) hit.getWeight(), Long::sum);
+            }
+            List<RollupRow> rows = new ArrayList<>(counts.size());
+            counts.forEach((row, count) ->
+                    rows.add(new RollupRow(row.getAppId(), row.getUriId(), row.getBucket(), count)));
+            rows.sort(ROW_ORDER);
+            rollups.addHits(level, rows);
+        }
+        watermarks.advanceToLastHit(WATERMARK);
+    }
+
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        HitCountAccumulator hits = new HitCountAccumulator();
+        collect(start, end, RollupLevel.HOUR, (level, from, to) -> hits.addAll(level == null
+                ? rollups.getRawHitCounts(from, to, uriIds)
+                : rollups.getRollupHitCounts(level, from, to, uriIds)));
+        return hits.sorted();
+    }
+
+    public List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                   TimeBucket bucket) {
+        Map<BucketHitCount, Long> counts = new HashMap<>();
+        RollupLevel coarsest = bucket == TimeBucket.MINUTE ? RollupLevel.MINUTE : RollupLevel.HOUR;
+        collect(start, end, coarsest, (level, from, to) -> {
+            List<BucketHitCount> rows = level == null
+                    ? rollups.getRawBucketHitCounts(bucket, from, to, uriIds)
+                    : rollups.getRollupBucketHitCounts(level, bucket, from, to, uriIds);
+            for (BucketHitCount row : rows) {
+                counts.merge(new BucketHitCount(row.getAppId(), row.getUriId(), row.getBucket(), 0L),
+                        row.getHits(), Long::sum);
+            }
+        });
+        List<BucketHitCount> result = new ArrayList<>(counts.size());
+        counts.forEach((row, count) ->
+                result.add(new BucketHitCount(row.getAppId(), row.getUriId(), row.getBucket(), count)));
+        result.sort(BUCKET_ORDER);
+        return result;
+    }
+
+    private void collect(LocalDateTime start, LocalDateTime end, RollupLevel coarsest, RangeQuery query) {
+        LocalDateTime endExclusive = end.plusSeconds(1);
+        LocalDateTime minuteStart = RollupLevel.MINUTE.ceil(start);
+        LocalDateTime minuteEnd = RollupLevel.MINUTE.floor(endExclusive);
+        if (!minuteStart.isBefore(minuteEnd)) {
+            query.run(null, start, endExclusive);
+            return;
+        }
+        collect(query, null, start, minuteStart);
+        collect(query, null, minuteEnd, endExclusive);
+        LocalDateTime hourStart = RollupLevel.HOUR.ceil(minuteStart);
+        LocalDateTime hourEnd = RollupLevel.HOUR.floor(minuteEnd);
+        if (coarsest == RollupLevel.MINUTE || !hourStart.isBefore(hourEnd)) {
+            collect(query, RollupLevel.MINUTE, minuteStart, minuteEnd);
+        } else {
+            collect(query, RollupLevel.MINUTE, minuteStart, hourStart);
+            collect(query, RollupLevel.HOUR, hourStart, hourEnd);
+            collect(query, RollupLevel.MINUTE, hourEnd, minuteEnd);
+        }
+    }
+
+    private void collect(RangeQuery query, RollupLevel level, LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            query.run(level, from, to);
+        }
+    }
+
+    private interface RangeQuery {
+        void run(RollupLevel level, LocalDateTime from, LocalDateTime to);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.server.rollup;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupLevel {
+    MINUTE("endpoint_hits_minute", "minute", ChronoUnit.MINUTES),
+    HOUR("endpoint_hits_hour", "hour", ChronoUnit.HOURS);
+
+    private final String table;
+    private final String unitName;
+    private final ChronoUnit unit;
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = time.truncatedTo(unit);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.server.rollup;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TimeBucket;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class RollupRepository {
+    private static final String PG_UPSERT = "INSERT INTO %s (app_id, uri_id, bucket, hits) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (bucket, app_id, uri_id) DO UPDATE SET hits = %<s.hits + EXCLUDED.hits";
+    private static final String MERGE_UPSERT = "MERGE INTO %s AS r " +
+            "USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS TIMESTAMP), " +
+            "CAST(? AS BIGINT))) AS s(app_id, uri_id, bucket, hits) " +
+            "ON r.bucket = s.bucket AND r.app_id = s.app_id AND r.uri_id = s.uri_id " +
+            "WHEN MATCHED THEN UPDATE SET hits = r.hits + s.hits " +
+            "WHEN NOT MATCHED THEN INSERT (app_id, uri_id, bucket, hits) " +
+            "VALUES (s.app_id, s.uri_id, s.bucket, s.hits)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final boolean postgres;
+
+    public RollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+    }
+
+    public void addHits(RollupLevel level, List<RollupRow> rows) {
+        String sql = String.format(postgres ? PG_UPSERT : MERGE_UPSERT, level.getTable());
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getAppId());
+            ps.setInt(2, row.getUriId());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getBucket()));
+            ps.setLong(4, row.getHits());
+        });
+    }
+
+    public void clear(RollupLevel level) {
+        jdbcTemplate.update("DELETE FROM " + level.getTable());
+    }
+
+    public List<RollupRow> findHitsAfter(RollupLevel level, long afterId, long upToId) {
+        String bucket = "DATE_TRUNC('" + level.getUnitName() + "', timestamp)";
+        return jdbcTemplate.query("SELECT app_id, uri_id, " + bucket + " AS bucket, SUM(weight) AS hits " +
+                        "FROM endpoint_hits WHERE id > ? AND id <= ? GROUP BY app_id, uri_id, " + bucket,
+                (rs, rowNum) -> new RollupRow(rs.getInt("app_id"), rs.getInt("uri_id"),
+                        rs.getTimestamp("bucket").toLocalDateTime(), rs.getLong("hits")),
+                afterId, upToId);
+    }
+
+    public List<HitCount> getRollupHitCounts(RollupLevel level, LocalDateTime from, LocalDateTime to,
+                                             List<Integer> uriIds) {
+        return query("SELECT app_id, uri_id, SUM(hits) AS hits FROM " + level.getTable() +
+                " WHERE bucket >= :from AND bucket < :to", from, to, uriIds);
+    }
+
+    public List<HitCount> getRawHitCounts(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        return query("SELECT app_id, uri_id, SUM(weight) AS hits FROM endpoint_hits " +
+                "WHERE timestamp >= :from AND timestamp < :to", from, to, uriIds);
+    }
+
+    public List<BucketHitCount> getRollupBucketHitCounts(RollupLevel level, TimeBucket bucket, LocalDateTime from,
+                                                         LocalDateTime to, List<Integer> uriIds) {
+        String truncated = "DATE_TRUNC('" + bucket.getUnitName() + "', bucket)";
+        return queryBuckets("SELECT app_id, uri_id, " + truncated + " AS time_bucket, SUM(hits) AS hits FROM " +
+                level.getTable() + " WHERE bucket >= :from AND bucket < :to", truncated, from, to, uriIds);
+    }
+
+    public List<BucketHitCount> getRawBucketHitCounts(TimeBucket bucket, LocalDateTime from, LocalDateTime to,
+                                                      List<Integer> uriIds) {
+        String truncated = "DATE_TRUNC('" + bucket.getUnitName() + "', timestamp)";
+        return queryBuckets("SELECT app_id, uri_id, " + truncated + " AS time_bucket, SUM(weight) AS hits " +
+                "FROM endpoint_hits WHERE timestamp >= :from AND timestamp < :to", truncated, from, to, uriIds);
+    }
+
+    private List<BucketHitCount> queryBuckets(String select, String truncated, LocalDateTime from, LocalDateTime to,
+                                              List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "from", Timestamp.valueOf(from),
+                "to", Timestamp.valueOf(to)));
+        String sql = select;
+        if (uriIds != null) {
+            sql += " AND uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        sql += " GROUP BY app_id, uri_id, " + truncated;
+        return namedJdbcTemplate.query(sql, parameters, (rs, rowNum) -> new BucketHitCount(rs.getInt("app_id"),
+                rs.getInt("uri_id"), rs.getTimestamp("time_bucket").toLocalDateTime(), rs.getLong("hits")));
+    }
+
+    private List<HitCount> query(String select, LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "from", Timestamp.valueOf(from),
+                "to", Timestamp.valueOf(to)));
+        String sql = select;
+        if (uriIds != null) {
+            sql += " AND uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        sql += " GROUP BY app_id, uri_id";
+        return namedJdbcTemplate.query(sql, parameters, (rs, rowNum) ->
+                new HitCount(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+    }
+}
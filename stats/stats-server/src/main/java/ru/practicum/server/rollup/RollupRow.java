@@ -0,0 +1,15 @@
+package ru.practicum.server.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class RollupRow {
+    private Integer appId;
+    private Integer uriId;
+    private LocalDateTime bucket;
+    private Long hits;
+}
@@ -2,13 +2,29 @@ package ru.practicum.server.service;
 
 
 import ru.practicum.dto.CreateEndpointHitDto;
+import ru.practicum.dto.ListTimeSeriesViewStats;
+import ru.practicum.dto.ListTrendingViewStats;
 import ru.practicum.dto.ListViewStats;
 import ru.practicum.dto.ResponseEndpointHitDto;
+import ru.practicum.dto.ResponseEndpointHitsDto;
+import ru.practicum.dto.ViewStats;
+import ru.practicum.server.model.TimeBucket;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatisticService {
     ResponseEndpointHitDto addEndpointHit(CreateEndpointHitDto createEndpointHitDto);
 
-    ListViewStats getStats(String start, String end, List<String> uris, Boolean unique);
+    ResponseEndpointHitsDto addEndpointHits(List<CreateEndpointHitDto> createEndpointHitDtos);
+
+    ListViewStats getStats(String start, String end, List<String> uris, Boolean unique, Boolean approx);
+
+    ListViewStats getTopStats(Integer n, String start, String end);
+
+    ListTimeSeriesViewStats getTimeSeries(String start, String end, List<String> uris, TimeBucket bucket);
+
+    ListTrendingViewStats getTrending(Integer n);
+
+    void streamStats(String start, String end, List<String> uris, Boolean unique, Consumer<ViewStats> consumer);
 }
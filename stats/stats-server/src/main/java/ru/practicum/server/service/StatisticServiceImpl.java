@@ -2,47 +2,185 @@ package ru.practicum.server.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.CreateEndpointHitDto;
+import ru.practicum.dto.ListTimeSeriesViewStats;
+import ru.practicum.dto.ListTrendingViewStats;
 import ru.practicum.dto.ListViewStats;
 import ru.practicum.dto.ResponseEndpointHitDto;
+import ru.practicum.dto.ResponseEndpointHitsDto;
 import ru.practicum.dto.ViewStats;
+import ru.practicum.server.columnar.ColumnarHitIndex;
+import ru.practicum.server.counter.AllTimeCounters;
+import ru.practicum.server.dictionary.HitDictionary;
+import ru.practicum.server.ingest.HitBuffer;
+import ru.practicum.server.ingest.HitDeduplicator;
+import ru.practicum.server.ingest.HitSampler;
+import ru.practicum.server.ingest.HitWriter;
 import ru.practicum.server.mapper.StatisticMapper;
-import ru.practicum.server.repository.StatisticRepository;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TimeBucket;
+import ru.practicum.server.model.TrendingHitCount;
+import ru.practicum.server.parallel.ParallelHitCounts;
+import ru.practicum.server.rollup.HitRollup;
+import ru.practicum.server.sketch.HeavyHitters;
+import ru.practicum.server.sketch.UniqueViewSketches;
+import ru.practicum.server.storage.HitStorage;
+import ru.practicum.server.trending.TrendingHits;
 
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticServiceImpl implements StatisticService {
-    private final StatisticRepository statistics;
+    private final HitStorage storage;
     private final StatisticMapper mapper;
+    private final HitDictionary dictionary;
+    private final HitDeduplicator deduplicator;
+    private final HitSampler sampler;
+    private final HitBuffer buffer;
+    private final HitWriter writer;
+    private final HitRollup rollup;
+    private final UniqueViewSketches uniqueSketches;
+    private final HeavyHitters heavyHitters;
+    private final AllTimeCounters allTimeCounters;
+    private final ColumnarHitIndex columnar;
+    private final TrendingHits trendingHits;
+    private final ParallelHitCounts parallel;
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Override
     public ResponseEndpointHitDto addEndpointHit(CreateEndpointHitDto createEndpointHitDto) {
-        return mapper.mapToResponseEndpointHitDto(statistics.save(mapper.mapToEndpointHit(createEndpointHitDto)));
+        EndpointHit hit = mapper.mapToEndpointHit(createEndpointHitDto);
+        if (deduplicator.isDuplicate(hit) || !sampler.sample(hit)) {
+            ResponseEndpointHitDto response = mapper.mapToResponseEndpointHitDto(hit);
+            response.setSuppressed(true);
+            return response;
+        }
+        if (buffer.isEnabled() && buffer.offer(hit)) {
+            return mapper.mapToResponseEndpointHitDto(hit);
+        }
+        return mapper.mapToResponseEndpointHitDto(writer.save(hit));
     }
 
     @Override
-    public ListViewStats getStats(String start, String end, List<String> uris, Boolean unique) {
+    public ResponseEndpointHitsDto addEndpointHits(List<CreateEndpointHitDto> createEndpointHitDtos) {
+        List<EndpointHit> hits = sampler.sample(deduplicator.removeDuplicates(
+                mapper.mapToEndpointHits(createEndpointHitDtos)));
+        int saved = hits.size();
+        if (buffer.isEnabled()) {
+            List<EndpointHit> rejected = new ArrayList<>();
+            for (EndpointHit hit : hits) {
+                if (!buffer.offer(hit)) {
+                    rejected.add(hit);
+                }
+            }
+            hits = rejected;
+        }
+        writer.write(hits);
+        return ResponseEndpointHitsDto.builder()
+                .saved(saved)
+                .suppressed(createEndpointHitDtos.size() - saved)
+                .build();
+    }
+
+    @Override
+    public ListViewStats getStats(String start, String end, List<String> uris, Boolean unique, Boolean approx) {
         LocalDateTime parseStart = LocalDateTime.parse(start, FORMATTER);
         LocalDateTime parseEnd = LocalDateTime.parse(end, FORMATTER);
-        List<ViewStats> viewStats;
+        List<Integer> uriIds = uris == null ? null : dictionary.findUriIds(uris);
+        List<HitCount> hitCounts;
         ListViewStats response;
-        if (unique) {
-            viewStats = uris == null
-                    ? statistics.getUniqueViewStatsByStartAndEndTime(parseStart, parseEnd)
-                    : statistics.getUniqueUrisViewStatsByStartAndEndTime(parseStart, parseEnd, uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            hitCounts = List.of();
+        } else if ((!unique || approx) && allTimeCounters.covers(parseStart, parseEnd, unique)) {
+            hitCounts = allTimeCounters.getHitCounts(uriIds, unique);
+        } else if (columnar.covers(parseStart, unique, approx)) {
+            hitCounts = columnar.getHitCounts(parseStart, parseEnd, uriIds, unique);
+        } else if (unique && approx && uniqueSketches.isEnabled()) {
+            hitCounts = uniqueSketches.getHitCounts(parseStart, parseEnd, uriIds);
+        } else if (!unique && rollup.isEnabled()) {
+            hitCounts = rollup.getHitCounts(parseStart, parseEnd, uriIds);
+        } else if (parallel.covers(parseStart, parseEnd)) {
+            hitCounts = parallel.getHitCounts(parseStart, parseEnd, uriIds, unique);
         } else {
-            viewStats = uris == null ? statistics.getViewStatsByStartAndEndTime(parseStart, parseEnd)
-                    : statistics.getUrisViewStatsByStartAndEndTime(parseStart, parseEnd, uris);
+            hitCounts = storage.getHitCounts(parseStart, parseEnd, uriIds, unique);
         }
-        response = ListViewStats.builder().viewStats(viewStats).build();
+        response = ListViewStats.builder().viewStats(mapper.mapToViewStats(hitCounts)).build();
         return response;
     }
-}
 
+    @Override
+    public ListViewStats getTopStats(Integer n, String start, String end) {
+        LocalDateTime parseStart = LocalDateTime.parse(start, FORMATTER);
+        LocalDateTime parseEnd = LocalDateTime.parse(end, FORMATTER);
+        List<ViewStats> viewStats;
+        if (heavyHitters.covers(parseStart, parseEnd)) {
+            viewStats = mapper.mapToViewStats(heavyHitters.getTop(n, parseStart, parseEnd));
+        } else {
+            viewStats = getStats(start, end, null, false, false).getViewStats();
+            viewStats = viewStats.size() > n ? viewStats.subList(0, n) : viewStats;
+        }
+        return ListViewStats.builder().viewStats(viewStats).build();
+    }
+
+    @Override
+    public ListTimeSeriesViewStats getTimeSeries(String start, String end, List<String> uris, TimeBucket bucket) {
+        LocalDateTime parseStart = LocalDateTime.parse(start, FORMATTER);
+        LocalDateTime parseEnd = LocalDateTime.parse(end, FORMATTER);
+        List<Integer> uriIds = uris == null ? null : dictionary.findUriIds(uris);
+        List<BucketHitCount> bucketHitCounts;
+        if (uriIds != null && uriIds.isEmpty()) {
+            bucketHitCounts = List.of();
+        } else {
+            bucketHitCounts = getBucketHitCounts(parseStart, parseEnd, uriIds, bucket);
+        }
+        return ListTimeSeriesViewStats.builder()
+                .timeSeries(mapper.mapToTimeSeriesViewStats(bucketHitCounts))
+                .build();
+    }
+
+    @Override
+    public ListTrendingViewStats getTrending(Integer n) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TrendingHitCount> trending;
+        if (trendingHits.isEnabled()) {
+            trending = trendingHits.getTrending(n, now);
+        } else {
+            trending = trendingHits.getTrending(n, now,
+                    getBucketHitCounts(trendingHits.getWindowStart(now), now, null, TimeBucket.MINUTE),
+                    TimeBucket.MINUTE.getUnit().getDuration().getSeconds());
+        }
+        return ListTrendingViewStats.builder()
+                .trending(mapper.mapToTrendingViewStats(trending))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(String start, String end, List<String> uris, Boolean unique,
+                            Consumer<ViewStats> consumer) {
+        List<Integer> uriIds = uris == null ? null : dictionary.findUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return;
+        }
+        storage.streamHitCounts(LocalDateTime.parse(start, FORMATTER), LocalDateTime.parse(end, FORMATTER),
+                uriIds, unique, hitCount -> consumer.accept(mapper.mapToViewStats(hitCount)));
+    }
+
+    private List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                    TimeBucket bucket) {
+        if (rollup.isEnabled()) {
+            return rollup.getBucketHitCounts(start, end, uriIds, bucket);
+        }
+        return storage.getBucketHitCounts(start, end, uriIds, bucket);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.server.sketch;
+
+import java.util.Arrays;
+
+public class BloomFilter {
+    private final long[] bits;
+    private final long size;
+    private final int hashes;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long optimalSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1, (optimalSize + Long.SIZE - 1) / Long.SIZE)];
+        this.size = (long) bits.length * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) size / expectedInsertions * ln2));
+    }
+
+    public boolean put(byte[] value) {
+        long hash1 = HyperLogLog.hash(value);
+        long hash2 = Long.rotateLeft(hash1, 32) * 0x9e3779b97f4a7c15L | 1;
+        boolean present = true;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, size);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits[word] & mask) == 0) {
+                present = false;
+                bits[word] |= mask;
+            }
+        }
+        return present;
+    }
+
+    public boolean mightContain(byte[] value) {
+        long hash1 = HyperLogLog.hash(value);
+        long hash2 = Long.rotateLeft(hash1, 32) * 0x9e3779b97f4a7c15L | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, size);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.server.sketch;
+
+import java.util.function.BiConsumer;
+
+public class BucketRing {
+    private final Bucket[] buckets;
+
+    public BucketRing(int size, int capacity) {
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new Bucket(capacity);
+        }
+    }
+
+    public void add(long index, long key, long weight) {
+        Bucket bucket = buckets[(int) Math.floorMod(index, (long) buckets.length)];
+        synchronized (bucket) {
+            if (index > bucket.index) {
+                bucket.index = index;
+                bucket.hitters.clear();
+            } else if (index < bucket.index) {
+                return;
+            }
+            bucket.hitters.add(key, weight);
+        }
+    }
+
+    public void forEach(long first, long last, BiConsumer<Long, SpaceSaving> consumer) {
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                if (bucket.index >= first && bucket.index <= last) {
+                    consumer.accept(bucket.index, bucket.hitters);
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final SpaceSaving hitters;
+        private long index = Long.MIN_VALUE;
+
+        private Bucket(int capacity) {
+            this.hitters = new SpaceSaving(capacity);
+        }
+    }
+}
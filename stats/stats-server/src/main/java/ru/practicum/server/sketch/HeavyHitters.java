@@ -0,0 +1,139 @@
+package ru.practicum.server.sketch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class HeavyHitters implements EndpointHitListener {
+    private final HitStorage storage;
+    private final boolean enabled;
+    private final long bucketSeconds;
+    private final int bucketCount;
+    private final int mergeFactor;
+    private final BucketRing buckets;
+    private final BucketRing mergedBuckets;
+
+    public HeavyHitters(HitStorage storage,
+                        @Value("${stats.top.enabled:false}") boolean enabled,
+                        @Value("${stats.top.bucket-seconds:60}") long bucketSeconds,
+                        @Value("${stats.top.buckets:1440}") int buckets,
+                        @Value("${stats.top.capacity:1000}") int capacity,
+                        @Value("${stats.top.merge-factor:60}") int mergeFactor) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.bucketSeconds = bucketSeconds;
+        this.mergeFactor = Math.max(1, mergeFactor);
+        this.bucketCount = buckets;
+        this.buckets = new BucketRing(enabled ? buckets : 0, capacity);
+        this.mergedBuckets = new BucketRing(enabled ? buckets / this.mergeFactor + 2 : 0, capacity);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minusSeconds(bucketSeconds * bucketCount);
+        long[] replayed = new long[1];
+        storage.streamHits(from, now.plusSeconds(bucketSeconds), hit -> {
+            add(hit);
+            replayed[0]++;
+        });
+        log.info("Replayed {} recent hits into the top-N sketches", replayed[0]);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (EndpointHit hit : hits) {
+            add(hit);
+        }
+    }
+
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return false;
+        }
+        long current = epochSecond(LocalDateTime.now()) / bucketSeconds;
+        long first = firstWholeBucket(start);
+        return first >= current - bucketCount + 1 && first <= lastWholeBucket(end, current);
+    }
+
+    public List<HitCount> getTop(int n, LocalDateTime start, LocalDateTime end) {
+        long current = epochSecond(LocalDateTime.now()) / bucketSeconds;
+        long first = firstWholeBucket(start);
+        long last = lastWholeBucket(end, current);
+        long firstMerged = Math.floorDiv(first + mergeFactor - 1, mergeFactor);
+        long lastMerged = Math.floorDiv(last + 1, mergeFactor) - 1;
+        HitCountAccumulator counts = new HitCountAccumulator();
+        Set<Long> merged = new HashSet<>();
+        mergedBuckets.forEach(firstMerged, lastMerged, (index, hitters) -> {
+            merged.add(index);
+            addAll(hitters, counts);
+        });
+        buckets.forEach(first, last, (index, hitters) -> {
+            if (!merged.contains(Math.floorDiv(index, mergeFactor))) {
+                addAll(hitters, counts);
+            }
+        });
+        if (epochSecond(start) < first * bucketSeconds) {
+            counts.addAll(storage.getHitCounts(start, time(first * bucketSeconds - 1), null, false));
+        }
+        if (epochSecond(end) >= (last + 1) * bucketSeconds) {
+            counts.addAll(storage.getHitCounts(time((last + 1) * bucketSeconds), end, null, false));
+        }
+        List<HitCount> sorted = counts.sorted();
+        return sorted.size() > n ? sorted.subList(0, n) : sorted;
+    }
+
+    private long firstWholeBucket(LocalDateTime start) {
+        return Math.floorDiv(epochSecond(start) + bucketSeconds - 1, bucketSeconds);
+    }
+
+    private long lastWholeBucket(LocalDateTime end, long current) {
+        return Math.min(Math.floorDiv(epochSecond(end) + 1, bucketSeconds) - 1, current);
+    }
+
+    private void add(EndpointHit hit) {
+        long index = epochSecond(hit.getTimestamp()) / bucketSeconds;
+        long key = HitCountAccumulator.key(hit.getAppId(), hit.getUriId());
+        buckets.add(index, key, hit.getWeight());
+        mergedBuckets.add(Math.floorDiv(index, mergeFactor), key, hit.getWeight());
+    }
+
+    private static void addAll(SpaceSaving hitters, HitCountAccumulator counts) {
+        hitters.forEach((key, hits) ->
+                counts.add(HitCountAccumulator.appId(key), HitCountAccumulator.uriId(key), hits));
+    }
+
+    private static LocalDateTime time(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.server.sketch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SketchKey {
+    private Integer appId;
+    private Integer uriId;
+    private LocalDateTime bucket;
+}
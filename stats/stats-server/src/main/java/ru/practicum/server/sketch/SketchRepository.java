@@ -0,0 +1,88 @@
+package ru.practicum.server.sketch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Repository
+public class SketchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public SketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public HyperLogLog find(SketchKey key) {
+        List<byte[]> registers = jdbcTemplate.query("SELECT registers FROM endpoint_hits_hll " +
+                        "WHERE app_id = ? AND uri_id = ? AND bucket = ?",
+                (rs, rowNum) -> rs.getBytes("registers"),
+                key.getAppId(), key.getUriId(), Timestamp.valueOf(key.getBucket()));
+        return registers.isEmpty() ? null : HyperLogLog.fromBytes(registers.get(0));
+    }
+
+    public void save(SketchKey key, HyperLogLog sketch, boolean exists) {
+        if (exists) {
+            jdbcTemplate.update("UPDATE endpoint_hits_hll SET registers = ? " +
+                            "WHERE app_id = ? AND uri_id = ? AND bucket = ?",
+                    sketch.toBytes(), key.getAppId(), key.getUriId(), Timestamp.valueOf(key.getBucket()));
+        } else {
+            jdbcTemplate.update("INSERT INTO endpoint_hits_hll (app_id, uri_id, bucket, registers) " +
+                            "VALUES (?, ?, ?, ?)",
+                    key.getAppId(), key.getUriId(), Timestamp.valueOf(key.getBucket()), sketch.toBytes());
+        }
+    }
+
+    public void findSketches(LocalDateTime from, LocalDateTime to, List<Integer> uriIds,
+                             BiConsumer<SketchKey, HyperLogLog> consumer) {
+        MapSqlParameterSource parameters = parameters(from, to, uriIds);
+        String sql = "SELECT app_id, uri_id, bucket, registers FROM endpoint_hits_hll " +
+                "WHERE bucket >= :from AND bucket < :to" + (uriIds != null ? " AND uri_id IN (:uriIds)" : "");
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            consumer.accept(new SketchKey(rs.getInt("app_id"), rs.getInt("uri_id"),
+                            rs.getTimestamp("bucket").toLocalDateTime()),
+                    HyperLogLog.fromBytes(rs.getBytes("registers")));
+        });
+    }
+
+    public void findDistinctIpsAfter(long afterId, long upToId, BiConsumer<SketchKey, byte[]> consumer) {
+        findDistinctIps("WHERE id > :afterId AND id <= :upToId", new MapSqlParameterSource(Map.of(
+                "afterId", afterId,
+                "upToId", upToId)), consumer);
+    }
+
+    public void findDistinctIps(LocalDateTime from, LocalDateTime to, List<Integer> uriIds,
+                                BiConsumer<SketchKey, byte[]> consumer) {
+        findDistinctIps("WHERE timestamp >= :from AND timestamp < :to" +
+                        (uriIds != null ? " AND uri_id IN (:uriIds)" : ""),
+                parameters(from, to, uriIds), consumer);
+    }
+
+    private void findDistinctIps(String where, MapSqlParameterSource parameters,
+                                 BiConsumer<SketchKey, byte[]> consumer) {
+        String sql = "SELECT DISTINCT app_id, uri_id, DATE_TRUNC('day', timestamp) AS bucket, ip FROM endpoint_hits " +
+                where + " ORDER BY app_id, uri_id, bucket";
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            consumer.accept(new SketchKey(rs.getInt("app_id"), rs.getInt("uri_id"),
+                    rs.getTimestamp("bucket").toLocalDateTime()), rs.getBytes("ip"));
+        });
+    }
+
+    private MapSqlParameterSource parameters(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource(Map.of(
+                "from", Timestamp.valueOf(from),
+                "to", Timestamp.valueOf(to)));
+        if (uriIds != null) {
+            parameters.addValue("uriIds", uriIds);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.server.sketch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+public class SpaceSaving {
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void add(long key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.position);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(key, weight, size);
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.position);
+            return;
+        }
+        Counter min = heap[0];
+        counters.remove(min.key);
+        min.key = key;
+        min.count += weight;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    public void forEach(BiConsumer<Long, Long> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(heap[i].key, heap[i].count);
+        }
+    }
+
+    public void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        Counter counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter counter = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(Counter counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private static final class Counter {
+        private long key;
+        private long count;
+        private int position;
+
+        private Counter(long key, long count, int position) {
+            this.key = key;
+            this.count = count;
+            this.position = position;
+        }
+    }
+}
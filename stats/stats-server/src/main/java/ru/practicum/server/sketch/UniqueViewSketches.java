@@ -0,0 +1,182 @@
+package ru.practicum.server.sketch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.repository.WatermarkRepository;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class UniqueViewSketches implements EndpointHitListener {
+    private static final String WATERMARK = "hll";
+
+    private final SketchRepository sketches;
+    private final WatermarkRepository watermarks;
+    private final boolean enabled;
+    private final ConcurrentMap<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private long previousLastHitId = -1;
+
+    public UniqueViewSketches(SketchRepository sketches, WatermarkRepository watermarks, HitStorage storage,
+                              @Value("${stats.hll.enabled:false}") boolean enabled) {
+        this.sketches = sketches;
+        this.watermarks = watermarks;
+        this.enabled = enabled && storage.isRelational();
+        if (enabled && !this.enabled) {
+            log.warn("Unique visitor sketches read the endpoint_hits table, ignoring stats.hll.enabled");
+        }
+    }
+
+    @PostConstruct
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        Long watermark = watermarks.find(WATERMARK);
+        long lastHitId = watermarks.findLastHitId();
+        if (watermark != null && watermark >= lastHitId) {
+            return;
+        }
+        long afterId = watermark == null ? 0 : watermark;
+        SketchKey[] current = new SketchKey[1];
+        HyperLogLog[] sketch = new HyperLogLog[1];
+        int[] saved = new int[1];
+        sketches.findDistinctIpsAfter(afterId, lastHitId, (key, ip) -> {
+            if (!key.equals(current[0])) {
+                if (current[0] != null) {
+                    merge(current[0], sketch[0]);
+                    saved[0]++;
+                }
+                current[0] = key;
+                sketch[0] = new HyperLogLog();
+            }
+            sketch[0].add(ip);
+        });
+        if (current[0] != null) {
+            merge(current[0], sketch[0]);
+            saved[0]++;
+        }
+        watermarks.save(WATERMARK, lastHitId);
+        log.info("Backfilled {} unique visitor sketches from hits after id {}", saved[0], afterId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (EndpointHit hit : hits) {
+            SketchKey key = new SketchKey(hit.getAppId(), hit.getUriId(),
+                    hit.getTimestamp().truncatedTo(ChronoUnit.DAYS));
+            pending.compute(key, (k, sketch) -> {
+                HyperLogLog updated = sketch == null ? new HyperLogLog() : sketch;
+                updated.add(hit.getIp());
+                return updated;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hll.flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        long lastHitId = watermarks.findLastHitId();
+        for (SketchKey key : pending.keySet()) {
+            HyperLogLog snapshot = snapshot(key);
+            if (snapshot == null) {
+                continue;
+            }
+            merge(key, snapshot);
+            pending.computeIfPresent(key, (k, sketch) -> sketch.equals(snapshot) ? null : sketch);
+        }
+        // hits committed before the previous flush started have reached pending by now and are stored
+        if (previousLastHitId >= 0) {
+            watermarks.advance(WATERMARK, previousLastHitId);
+        }
+        previousLastHitId = lastHitId;
+    }
+
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        LocalDateTime endExclusive = end.plusSeconds(1);
+        LocalDateTime dayStart = start.truncatedTo(ChronoUnit.DAYS).equals(start)
+                ? start
+                : start.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime dayEnd = endExclusive.truncatedTo(ChronoUnit.DAYS);
+        Map<Long, HyperLogLog> merged = new HashMap<>();
+        if (!dayStart.isBefore(dayEnd)) {
+            sketches.findDistinctIps(start, endExclusive, uriIds, (key, ip) -> sketchFor(merged, key).add(ip));
+            return estimates(merged);
+        }
+        sketches.findSketches(dayStart, dayEnd, uriIds, (key, sketch) -> sketchFor(merged, key).merge(sketch));
+        for (SketchKey key : pending.keySet()) {
+            if (!key.getBucket().isBefore(dayStart) && key.getBucket().isBefore(dayEnd)
+                    && (uriIds == null || uriIds.contains(key.getUriId()))) {
+                HyperLogLog snapshot = snapshot(key);
+                if (snapshot != null) {
+                    sketchFor(merged, key).merge(snapshot);
+                }
+            }
+        }
+        if (start.isBefore(dayStart)) {
+            sketches.findDistinctIps(start, dayStart, uriIds, (key, ip) -> sketchFor(merged, key).add(ip));
+        }
+        if (dayEnd.isBefore(endExclusive)) {
+            sketches.findDistinctIps(dayEnd, endExclusive, uriIds, (key, ip) -> sketchFor(merged, key).add(ip));
+        }
+        return estimates(merged);
+    }
+
+    private void merge(SketchKey key, HyperLogLog sketch) {
+        HyperLogLog stored = sketches.find(key);
+        if (stored == null) {
+            sketches.save(key, sketch, false);
+        } else {
+            stored.merge(sketch);
+            sketches.save(key, stored, true);
+        }
+    }
+
+    private HyperLogLog snapshot(SketchKey key) {
+        HyperLogLog[] snapshot = new HyperLogLog[1];
+        pending.computeIfPresent(key, (k, sketch) -> {
+            snapshot[0] = sketch.copy();
+            return sketch;
+        });
+        return snapshot[0];
+    }
+
+    private HyperLogLog sketchFor(Map<Long, HyperLogLog> merged, SketchKey key) {
+        return merged.computeIfAbsent(HitCountAccumulator.key(key.getAppId(), key.getUriId()),
+                k -> new HyperLogLog());
+    }
+
+    private List<HitCount> estimates(Map<Long, HyperLogLog> merged) {
+        HitCountAccumulator counts = new HitCountAccumulator();
+        merged.forEach((key, sketch) -> counts.add(HitCountAccumulator.appId(key),
+                HitCountAccumulator.uriId(key), sketch.estimate()));
+        return counts.sorted();
+    }
+}
@@ -0,0 +1,217 @@
+package ru.practicum.server.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+class HitLogSegment implements Closeable {
+    static final int RECORD_SIZE = 36;
+    private static final int HEADER_SIZE = 64;
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int MAGIC = 0x48495453;
+    private static final int VERSION = 1;
+    private static final int COUNT_OFFSET = 8;
+    private static final int IP_SIZE = 16;
+    private static final byte DIGESTED_IP = -1;
+    private static final int COMMIT_OFFSET = 33;
+    private static final byte COMMITTED = 1;
+    private static final int WEIGHT_OFFSET = 34;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final long baseId;
+    private final int capacity;
+    private final int indexInterval;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private volatile int count;
+    private volatile long minTime = Long.MAX_VALUE;
+    private volatile long maxTime = Long.MIN_VALUE;
+
+    private HitLogSegment(long baseId, int capacity, int indexInterval, FileChannel channel,
+                          MappedByteBuffer buffer) {
+        this.baseId = baseId;
+        this.capacity = capacity;
+        this.indexInterval = indexInterval;
+        this.channel = channel;
+        this.buffer = buffer;
+        int blocks = (capacity + indexInterval - 1) / indexInterval;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        Arrays.fill(blockMin, Long.MAX_VALUE);
+        Arrays.fill(blockMax, Long.MIN_VALUE);
+    }
+
+    static HitLogSegment open(Path path, long baseId, int capacity, int indexInterval) throws IOException {
+        boolean exists = Files.exists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (exists) {
+            capacity = (int) Math.min((channel.size() - HEADER_SIZE) / RECORD_SIZE, MAX_RECORDS);
+        }
+        if (capacity > MAX_RECORDS) {
+            channel.close();
+            throw new IllegalArgumentException("A hit log segment holds at most " + MAX_RECORDS + " records");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        HitLogSegment segment = new HitLogSegment(baseId, capacity, indexInterval, channel, buffer);
+        if (exists) {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("Not a hit log segment: " + path);
+            }
+            segment.recover((int) buffer.getLong(COUNT_OFFSET));
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(COUNT_OFFSET, 0);
+        }
+        return segment;
+    }
+
+    long getBaseId() {
+        return baseId;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    long append(int appId, int uriId, long epochSecond, byte[] ip, int weight) {
+        int record = count;
+        int offset = offset(record);
+        buffer.putInt(offset, appId);
+        buffer.putInt(offset + 4, uriId);
+        buffer.putLong(offset + 8, epochSecond);
+        byte[] stored = ip.length > IP_SIZE ? digest(ip) : ip;
+        buffer.put(offset + 16, ip.length > IP_SIZE ? DIGESTED_IP : (byte) ip.length);
+        for (int i = 0; i < IP_SIZE; i++) {
+            buffer.put(offset + 17 + i, i < stored.length ? stored[i] : 0);
+        }
+        buffer.putShort(offset + WEIGHT_OFFSET, (short) Math.min(weight, MAX_WEIGHT));
+        VarHandle.storeStoreFence();
+        buffer.put(offset + COMMIT_OFFSET, COMMITTED);
+        index(record, epochSecond);
+        count = record + 1;
+        return baseId + record;
+    }
+
+    void scan(long from, long to, RecordVisitor visitor) {
+        int records = count;
+        if (records == 0 || maxTime < from || minTime >= to) {
+            return;
+        }
+        for (int block = 0; block * indexInterval < records; block++) {
+            if (blockMax[block] < from || blockMin[block] >= to) {
+                continue;
+            }
+            int last = Math.min(records, (block + 1) * indexInterval);
+            for (int record = block * indexInterval; record < last; record++) {
+                long epochSecond = epochSecond(record);
+                if (epochSecond >= from && epochSecond < to) {
+                    visitor.visit(this, record);
+                }
+            }
+        }
+    }
+
+    long id(int record) {
+        return baseId + record;
+    }
+
+    int appId(int record) {
+        return buffer.getInt(offset(record));
+    }
+
+    int uriId(int record) {
+        return buffer.getInt(offset(record) + 4);
+    }
+
+    long epochSecond(int record) {
+        return buffer.getLong(offset(record) + 8);
+    }
+
+    int weight(int record) {
+        int weight = Short.toUnsignedInt(buffer.getShort(offset(record) + WEIGHT_OFFSET));
+        return weight == 0 ? 1 : weight;
+    }
+
+    byte[] ip(int record) {
+        int offset = offset(record);
+        byte length = buffer.get(offset + 16);
+        byte[] ip = new byte[length == DIGESTED_IP ? IP_SIZE : length];
+        for (int i = 0; i < ip.length; i++) {
+            ip[i] = buffer.get(offset + 17 + i);
+        }
+        return ip;
+    }
+
+    synchronized void force() {
+        int records = count;
+        buffer.force();
+        buffer.putLong(COUNT_OFFSET, records);
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void recover(int records) {
+        while (records < capacity && buffer.get(offset(records) + COMMIT_OFFSET) == COMMITTED) {
+            records++;
+        }
+        for (int record = 0; record < records; record++) {
+            index(record, epochSecond(record));
+        }
+        count = records;
+    }
+
+    private void index(int record, long epochSecond) {
+        int block = record / indexInterval;
+        blockMin[block] = Math.min(blockMin[block], epochSecond);
+        blockMax[block] = Math.max(blockMax[block], epochSecond);
+        minTime = Math.min(minTime, epochSecond);
+        maxTime = Math.max(maxTime, epochSecond);
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private static byte[] digest(byte[] ip) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(ip);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface RecordVisitor {
+        void visit(HitLogSegment segment, int record);
+    }
+}
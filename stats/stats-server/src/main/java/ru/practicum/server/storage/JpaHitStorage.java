@@ -0,0 +1,86 @@
+package ru.practicum.server.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.TimeBucket;
+import ru.practicum.server.repository.StatisticRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaHitStorage implements HitStorage {
+    private final StatisticRepository statistics;
+
+    @Override
+    public EndpointHit save(EndpointHit hit) {
+        return statistics.save(hit);
+    }
+
+    @Override
+    public void saveAll(List<EndpointHit> hits) {
+        statistics.saveAllInBatch(hits);
+    }
+
+    @Override
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                       boolean unique) {
+        if (unique) {
+            return uriIds == null
+                    ? statistics.getUniqueViewStatsByStartAndEndTime(start, end)
+                    : statistics.getUniqueUrisViewStatsByStartAndEndTime(start, end, uriIds);
+        }
+        return uriIds == null ? statistics.getViewStatsByStartAndEndTime(start, end)
+                : statistics.getUrisViewStatsByStartAndEndTime(start, end, uriIds);
+    }
+
+    @Override
+    public void streamHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique,
+                                Consumer<HitCount> consumer) {
+        statistics.streamHitCounts(start, end, uriIds, unique, consumer);
+    }
+
+    @Override
+    public List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                   TimeBucket bucket) {
+        return statistics.getBucketHitCounts(start, end, uriIds, bucket);
+    }
+
+    @Override
+    public void streamHits(LocalDateTime from, LocalDateTime to, Consumer<EndpointHit> consumer) {
+        statistics.streamHits(from, to, consumer);
+    }
+
+    @Override
+    public void streamAllHits(Consumer<EndpointHit> consumer) {
+        statistics.streamAllHits(consumer);
+    }
+
+    @Override
+    public void streamVisitors(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                               Consumer<EndpointHit> consumer) {
+        statistics.streamVisitors(start, end, uriIds, consumer);
+    }
+
+    @Override
+    public LocalDateTime getFirstHitTime() {
+        return statistics.findFirstHitTime();
+    }
+
+    @Override
+    public LocalDateTime getLastHitTime() {
+        return statistics.findLastHitTime();
+    }
+
+    @Override
+    public boolean isRelational() {
+        return true;
+    }
+}
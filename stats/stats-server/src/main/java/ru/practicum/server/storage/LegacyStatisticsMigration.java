@@ -0,0 +1,104 @@
+package ru.practicum.server.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.dictionary.IpAddresses;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.partition.PartitionManager;
+
+import javax.annotation.PostConstruct;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+@Slf4j
+@Component
+public class LegacyStatisticsMigration {
+    private static final String LEGACY_TABLE = "statistics";
+    private static final String MIGRATED_TABLE = "statistics_migrated";
+    private static final String SELECT_ROWS = "SELECT s.id, a.id AS app_id, u.id AS uri_id, s.ip, s.timestamp " +
+            "FROM statistics s " +
+            "JOIN endpoint_apps a ON a.name = s.app " +
+            "JOIN endpoint_uris u ON u.uri = s.uri " +
+            "WHERE s.id > ? ORDER BY s.id FETCH FIRST ? ROWS ONLY";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HitStorage storage;
+    private final TransactionTemplate transactions;
+    private final PartitionManager partitionManager;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacyStatisticsMigration(JdbcTemplate jdbcTemplate, HitStorage storage,
+                                     PlatformTransactionManager transactionManager, PartitionManager partitionManager,
+                                     @Value("${stats.migration.legacy.enabled:true}") boolean enabled,
+                                     @Value("${stats.migration.legacy.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storage = storage;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.partitionManager = partitionManager;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled || !tableExists(LEGACY_TABLE)) {
+            return;
+        }
+        long rows = transactions.execute(status -> copy());
+        partitionManager.maintain();
+        log.info("Migrated {} hits from {} into endpoint_hits, the old table is kept as {}", rows, LEGACY_TABLE,
+                MIGRATED_TABLE);
+    }
+
+    private long copy() {
+        jdbcTemplate.update("INSERT INTO endpoint_apps (name) SELECT DISTINCT s.app FROM statistics s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM endpoint_apps a WHERE a.name = s.app)");
+        jdbcTemplate.update("INSERT INTO endpoint_uris (uri) SELECT DISTINCT s.uri FROM statistics s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM endpoint_uris u WHERE u.uri = s.uri)");
+        long rows = 0;
+        long lastId = 0;
+        while (true) {
+            List<EndpointHit> hits = jdbcTemplate.query(SELECT_ROWS, (rs, rowNum) -> mapHit(rs), lastId, batchSize);
+            if (hits.isEmpty()) {
+                break;
+            }
+            lastId = hits.get(hits.size() - 1).getId();
+            hits.forEach(hit -> hit.setId(null));
+            storage.saveAll(hits);
+            rows += hits.size();
+        }
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " RENAME TO " + MIGRATED_TABLE);
+        return rows;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(),
+                        connection.getSchema(), name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private static EndpointHit mapHit(ResultSet rs) throws SQLException {
+        EndpointHit hit = new EndpointHit();
+        hit.setId(rs.getLong("id"));
+        hit.setAppId(rs.getInt("app_id"));
+        hit.setUriId(rs.getInt("uri_id"));
+        hit.setIp(IpAddresses.pack(rs.getString("ip")));
+        hit.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        return hit;
+    }
+}
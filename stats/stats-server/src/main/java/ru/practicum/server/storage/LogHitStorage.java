@@ -0,0 +1,272 @@
+package ru.practicum.server.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.model.TimeBucket;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "log")
+public class LogHitStorage implements HitStorage {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Comparator<BucketHitCount> BUCKET_ORDER = Comparator.comparing(BucketHitCount::getUriId)
+            .thenComparing(BucketHitCount::getAppId)
+            .thenComparing(BucketHitCount::getBucket);
+    private static final Comparator<Map.Entry<Long, long[]>> MOST_HITS_FIRST = Comparator
+            .comparingLong((Map.Entry<Long, long[]> entry) -> entry.getValue()[0]).reversed()
+            .thenComparingInt(entry -> HitCountAccumulator.uriId(entry.getKey()))
+            .thenComparingInt(entry -> HitCountAccumulator.appId(entry.getKey()));
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int indexInterval;
+    private final boolean fsync;
+    private final List<HitLogSegment> segments = new CopyOnWriteArrayList<>();
+    private HitLogSegment active;
+
+    public LogHitStorage(@Value("${stats.storage.log.dir:data/hits}") String directory,
+                         @Value("${stats.storage.log.segment-records:1048576}") int segmentRecords,
+                         @Value("${stats.storage.log.index-interval:1024}") int indexInterval,
+                         @Value("${stats.storage.log.fsync:false}") boolean fsync) {
+        this.directory = Paths.get(directory);
+        this.segmentRecords = Math.min(segmentRecords, HitLogSegment.MAX_RECORDS);
+        if (segmentRecords > HitLogSegment.MAX_RECORDS) {
+            log.warn("stats.storage.log.segment-records={} does not fit one mapped segment, using {}",
+                    segmentRecords, HitLogSegment.MAX_RECORDS);
+        }
+        this.indexInterval = indexInterval;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        long records = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long baseId = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            HitLogSegment segment = HitLogSegment.open(file, baseId, segmentRecords, indexInterval);
+            segments.add(segment);
+            records += segment.getCount();
+        }
+        active = segments.isEmpty() ? roll(1) : segments.get(segments.size() - 1);
+        log.info("Opened hit log in {} with {} segments and {} hits", directory.toAbsolutePath(), segments.size(),
+                records);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (HitLogSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    @Override
+    public synchronized EndpointHit save(EndpointHit hit) {
+        append(hit);
+        if (fsync) {
+            active.force();
+        }
+        return hit;
+    }
+
+    @Override
+    public synchronized void saveAll(List<EndpointHit> hits) {
+        for (EndpointHit hit : hits) {
+            append(hit);
+        }
+        if (fsync) {
+            active.force();
+        }
+    }
+
+    @Override
+    public List<HitCount> getHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                       boolean unique) {
+        List<HitCount> hitCounts = new ArrayList<>();
+        streamHitCounts(start, end, uriIds, unique, hitCounts::add);
+        return hitCounts;
+    }
+
+    @Override
+    public void streamHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique,
+                                Consumer<HitCount> consumer) {
+        Map<Long, long[]> counts = aggregate(start, end, uriIds, unique);
+        List<Map.Entry<Long, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(MOST_HITS_FIRST);
+        for (Map.Entry<Long, long[]> entry : entries) {
+            consumer.accept(new HitCount(HitCountAccumulator.appId(entry.getKey()),
+                    HitCountAccumulator.uriId(entry.getKey()), entry.getValue()[0]));
+        }
+    }
+
+    @Override
+    public List<BucketHitCount> getBucketHitCounts(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                                   TimeBucket bucket) {
+        Set<Integer> wanted = uriIds == null ? null : new HashSet<>(uriIds);
+        long bucketSeconds = bucket.getUnit().getDuration().getSeconds();
+        Map<BucketHitCount, Long> counts = new HashMap<>();
+        scan(epochSecond(start), epochSecond(end) + 1, (segment, record) -> {
+            int uriId = segment.uriId(record);
+            if (wanted == null || wanted.contains(uriId)) {
+                long bucketStart = Math.floorDiv(segment.epochSecond(record), bucketSeconds) * bucketSeconds;
+                counts.merge(new BucketHitCount(segment.appId(record), uriId,
+                        LocalDateTime.ofEpochSecond(bucketStart, 0, ZoneOffset.UTC), 0L),
+                        (long) segment.weight(record), Long::sum);
+            }
+        });
+        List<BucketHitCount> result = new ArrayList<>(counts.size());
+        counts.forEach((row, count) ->
+                result.add(new BucketHitCount(row.getAppId(), row.getUriId(), row.getBucket(), count)));
+        result.sort(BUCKET_ORDER);
+        return result;
+    }
+
+    @Override
+    public void streamHits(LocalDateTime from, LocalDateTime to, Consumer<EndpointHit> consumer) {
+        scan(epochSecond(from), epochSecond(to), (segment, record) -> consumer.accept(toHit(segment, record)));
+    }
+
+    @Override
+    public void streamAllHits(Consumer<EndpointHit> consumer) {
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, (segment, record) -> consumer.accept(toHit(segment, record)));
+    }
+
+    @Override
+    public void streamVisitors(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                               Consumer<EndpointHit> consumer) {
+        Set<Integer> wanted = uriIds == null ? null : new HashSet<>(uriIds);
+        scan(epochSecond(start), epochSecond(end) + 1, (segment, record) -> {
+            if (wanted == null || wanted.contains(segment.uriId(record))) {
+                consumer.accept(toHit(segment, record));
+            }
+        });
+    }
+
+    @Override
+    public LocalDateTime getFirstHitTime() {
+        long first = Long.MAX_VALUE;
+        for (HitLogSegment segment : segments) {
+            first = Math.min(first, segment.getMinTime());
+        }
+        return first == Long.MAX_VALUE ? null : LocalDateTime.ofEpochSecond(first, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public LocalDateTime getLastHitTime() {
+        long last = Long.MIN_VALUE;
+        for (HitLogSegment segment : segments) {
+            last = Math.max(last, segment.getMaxTime());
+        }
+        return last == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(last, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean isRelational() {
+        return false;
+    }
+
+    private Map<Long, long[]> aggregate(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                        boolean unique) {
+        Set<Integer> wanted = uriIds == null ? null : new HashSet<>(uriIds);
+        Map<Long, long[]> counts = new HashMap<>();
+        Map<Long, Set<ByteBuffer>> visitors = new HashMap<>();
+        scan(epochSecond(start), epochSecond(end) + 1, (segment, record) -> {
+            int uriId = segment.uriId(record);
+            if (wanted != null && !wanted.contains(uriId)) {
+                return;
+            }
+            long key = HitCountAccumulator.key(segment.appId(record), uriId);
+            if (unique) {
+                visitors.computeIfAbsent(key, k -> new HashSet<>()).add(ByteBuffer.wrap(segment.ip(record)));
+            } else {
+                counts.computeIfAbsent(key, k -> new long[1])[0] += segment.weight(record);
+            }
+        });
+        Iterator<Map.Entry<Long, Set<ByteBuffer>>> iterator = visitors.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Set<ByteBuffer>> entry = iterator.next();
+            counts.put(entry.getKey(), new long[]{entry.getValue().size()});
+            iterator.remove();
+        }
+        return counts;
+    }
+
+    private void append(EndpointHit hit) {
+        if (active.isFull()) {
+            active.force();
+            active = roll(active.getBaseId() + active.getCount());
+        }
+        hit.setId(active.append(hit.getAppId(), hit.getUriId(), epochSecond(hit.getTimestamp()), hit.getIp(),
+                hit.getWeight()));
+    }
+
+    private HitLogSegment roll(long baseId) {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseId, SEGMENT_SUFFIX));
+        try {
+            HitLogSegment segment = HitLogSegment.open(file, baseId, segmentRecords, indexInterval);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scan(long from, long to, HitLogSegment.RecordVisitor visitor) {
+        for (HitLogSegment segment : segments) {
+            segment.scan(from, to, visitor);
+        }
+    }
+
+    private static EndpointHit toHit(HitLogSegment segment, int record) {
+        EndpointHit hit = new EndpointHit();
+        hit.setId(segment.id(record));
+        hit.setAppId(segment.appId(record));
+        hit.setUriId(segment.uriId(record));
+        hit.setIp(segment.ip(record));
+        hit.setTimestamp(LocalDateTime.ofEpochSecond(segment.epochSecond(record), 0, ZoneOffset.UTC));
+        hit.setWeight(segment.weight(record));
+        return hit;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
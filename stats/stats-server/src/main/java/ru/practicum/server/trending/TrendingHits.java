@@ -0,0 +1,155 @@
+package ru.practicum.server.trending;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.ingest.EndpointHitListener;
+import ru.practicum.server.model.BucketHitCount;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.model.TrendingHitCount;
+import ru.practicum.server.sketch.BucketRing;
+import ru.practicum.server.storage.HitStorage;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@DependsOn("legacyStatisticsMigration")
+public class TrendingHits implements EndpointHitListener {
+    private static final Comparator<TrendingHitCount> FASTEST_FIRST = Comparator
+            .comparing(TrendingHitCount::getVelocity, Comparator.reverseOrder())
+            .thenComparing(TrendingHitCount::getHits, Comparator.reverseOrder())
+            .thenComparing(TrendingHitCount::getUriId)
+            .thenComparing(TrendingHitCount::getAppId);
+
+    private final HitStorage storage;
+    private final boolean enabled;
+    private final long bucketSeconds;
+    private final int bucketCount;
+    private final double halfLifeSeconds;
+    private final BucketRing buckets;
+
+    public TrendingHits(HitStorage storage,
+                        @Value("${stats.trending.enabled:false}") boolean enabled,
+                        @Value("${stats.trending.bucket-seconds:60}") long bucketSeconds,
+                        @Value("${stats.trending.buckets:60}") int buckets,
+                        @Value("${stats.trending.half-life-seconds:600}") long halfLifeSeconds,
+                        @Value("${stats.trending.capacity:1000}") int capacity) {
+        this.storage = storage;
+        this.enabled = enabled;
+        this.bucketSeconds = bucketSeconds;
+        this.bucketCount = buckets;
+        this.halfLifeSeconds = halfLifeSeconds;
+        this.buckets = new BucketRing(enabled ? buckets : 0, capacity);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long[] replayed = new long[1];
+        storage.streamHits(getWindowStart(now), now.plusSeconds(bucketSeconds), hit -> {
+            add(hit);
+            replayed[0]++;
+        });
+        log.info("Replayed {} recent hits into the trending buckets", replayed[0]);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LocalDateTime getWindowStart(LocalDateTime now) {
+        return LocalDateTime.ofEpochSecond((epochSecond(now) / bucketSeconds - bucketCount + 1) * bucketSeconds, 0,
+                ZoneOffset.UTC);
+    }
+
+    @Override
+    public void onHits(List<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        for (EndpointHit hit : hits) {
+            add(hit);
+        }
+    }
+
+    public List<TrendingHitCount> getTrending(int n, LocalDateTime now) {
+        long current = epochSecond(now) / bucketSeconds;
+        Scores scores = new Scores(now, bucketSeconds);
+        buckets.forEach(current - bucketCount + 1, current, (index, hitters) -> {
+            long bucketStart = index * bucketSeconds;
+            hitters.forEach((key, hits) -> scores.add(key, bucketStart, hits));
+        });
+        return scores.top(n);
+    }
+
+    public List<TrendingHitCount> getTrending(int n, LocalDateTime now, List<BucketHitCount> bucketHitCounts,
+                                              long bucketSeconds) {
+        Scores scores = new Scores(now, bucketSeconds);
+        for (BucketHitCount count : bucketHitCounts) {
+            scores.add(HitCountAccumulator.key(count.getAppId(), count.getUriId()), epochSecond(count.getBucket()),
+                    count.getHits());
+        }
+        return scores.top(n);
+    }
+
+    private void add(EndpointHit hit) {
+        buckets.add(epochSecond(hit.getTimestamp()) / bucketSeconds,
+                HitCountAccumulator.key(hit.getAppId(), hit.getUriId()), hit.getWeight());
+    }
+
+    private double weight(long ageSeconds) {
+        return Math.pow(0.5, ageSeconds / halfLifeSeconds);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private final class Scores {
+        private final long now;
+        private final long windowStart;
+        private final long bucketSeconds;
+        private final Map<Long, double[]> scores = new HashMap<>();
+
+        private Scores(LocalDateTime now, long bucketSeconds) {
+            this.now = epochSecond(now);
+            this.bucketSeconds = bucketSeconds;
+            this.windowStart = epochSecond(getWindowStart(now));
+        }
+
+        private void add(long key, long bucketStart, long hits) {
+            if (bucketStart < windowStart || bucketStart > now) {
+                return;
+            }
+            double[] score = scores.computeIfAbsent(key, k -> new double[2]);
+            score[0] += hits;
+            score[1] += hits * weight(now - bucketStart);
+        }
+
+        private List<TrendingHitCount> top(int n) {
+            double exposure = 0;
+            for (long bucketStart = windowStart; bucketStart <= now; bucketStart += bucketSeconds) {
+                exposure += Math.max(1, Math.min(bucketSeconds, now - bucketStart)) * weight(now - bucketStart);
+            }
+            double perMinute = 60 / exposure;
+            List<TrendingHitCount> trending = new ArrayList<>(scores.size());
+            scores.forEach((key, score) -> trending.add(new TrendingHitCount(HitCountAccumulator.appId(key),
+                    HitCountAccumulator.uriId(key), (long) score[0], score[1] * perMinute)));
+            trending.sort(FASTEST_FIRST);
+            return trending.size() > n ? trending.subList(0, n) : trending;
+        }
+    }
+}
@@ -1,9 +1,62 @@
+CREATE TABLE IF NOT EXISTS endpoint_apps
+(
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uq_endpoint_app_name UNIQUE (name)
+);
 
-CREATE TABLE IF NOT EXISTS statistics
+CREATE TABLE IF NOT EXISTS endpoint_uris
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    app VARCHAR(255) NOT NULL,
+    id  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     uri VARCHAR(255) NOT NULL,
-    ip VARCHAR(20)  NOT NULL,
-    timestamp        TIMESTAMP WITHOUT TIME ZONE NOT NULL
-);
\ No newline at end of file
+    CONSTRAINT uq_endpoint_uri UNIQUE (uri)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits
+(
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app_id    INTEGER NOT NULL,
+    uri_id    INTEGER NOT NULL,
+    ip        BYTEA NOT NULL,
+    timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    weight    INTEGER NOT NULL DEFAULT 1
+);
+
+ALTER TABLE endpoint_hits ADD COLUMN IF NOT EXISTS weight INTEGER NOT NULL DEFAULT 1;
+
+CREATE INDEX IF NOT EXISTS endpoint_hits_timestamp_idx ON endpoint_hits (timestamp);
+
+CREATE INDEX IF NOT EXISTS endpoint_hits_uri_timestamp_idx ON endpoint_hits (uri_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_minute
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits   BIGINT NOT NULL,
+    PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_hour
+(
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits   BIGINT NOT NULL,
+    PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_hll
+(
+    app_id    INTEGER NOT NULL,
+    uri_id    INTEGER NOT NULL,
+    bucket    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    registers BYTEA NOT NULL,
+    PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_watermarks
+(
+    name   VARCHAR(32) PRIMARY KEY,
+    hit_id BIGINT NOT NULL
+);
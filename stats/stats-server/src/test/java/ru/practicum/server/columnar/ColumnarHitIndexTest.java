@@ -0,0 +1,157 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.server.dictionary.IpAddresses;
+import ru.practicum.server.ingest.HitWriter;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+import ru.practicum.server.model.HitCountAccumulator;
+import ru.practicum.server.storage.HitStorage;
+import ru.practicum.server.storage.LogHitStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:columnar-test",
+        "stats.columnar.enabled=true",
+        "stats.columnar.window-hours=24",
+        "stats.columnar.initial-capacity=64"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ColumnarHitIndexTest {
+    private static final int APPS = 3;
+    private static final int URIS = 20;
+    private static final List<Integer> SOME_URIS = List.of(1, 4, 9, 16, 99);
+
+    @Autowired
+    private HitStorage storage;
+    @Autowired
+    private HitWriter writer;
+    @Autowired
+    private ColumnarHitIndex columnar;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeAll
+    void writeHits() {
+        Random random = new Random(42);
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            hits.add(hit(random, now.minusSeconds(random.nextInt(48 * 3600)), ipv4(random)));
+        }
+        writer.write(hits);
+    }
+
+    @Test
+    void matchesStorageInsideTheWindow() {
+        LocalDateTime start = now.minusHours(23);
+        for (boolean unique : new boolean[]{false, true}) {
+            assertThat(columnar.covers(start, unique, false)).isTrue();
+            for (List<Integer> uriIds : Arrays.asList(null, SOME_URIS)) {
+                assertMatchesStorage(columnar, start, now, uriIds, unique);
+                assertMatchesStorage(columnar, now.minusHours(5), now.minusHours(1), uriIds, unique);
+            }
+        }
+    }
+
+    @Test
+    void doesNotCoverRangesBeforeTheWindowCutoff() {
+        assertThat(columnar.covers(now.minusHours(25), false, false)).isFalse();
+        assertThat(columnar.covers(now.minusHours(25), true, true)).isFalse();
+    }
+
+    @Test
+    void reloadAndCompactionKeepTheWindow() {
+        ColumnarHitIndex reloaded = new ColumnarHitIndex(storage, true, 24, 16);
+        reloaded.load();
+        assertMatchesStorage(reloaded, now.minusHours(23), now, null, false);
+        assertMatchesStorage(reloaded, now.minusHours(23), now, SOME_URIS, true);
+
+        reloaded.compact();
+        assertThat(reloaded.covers(now.minusHours(23), false, false)).isTrue();
+        assertMatchesStorage(reloaded, now.minusHours(23), now, null, false);
+        assertMatchesStorage(reloaded, now.minusHours(23), now, SOME_URIS, true);
+    }
+
+    @Test
+    void hashedIpsAreOnlyUsedForApproximateUniqueCounts(@TempDir Path directory) throws IOException {
+        LogHitStorage hashedStorage = new LogHitStorage(directory.toString(), 1024, 64, false);
+        hashedStorage.open();
+        Random random = new Random(7);
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            hits.add(hit(random, now.minusSeconds(random.nextInt(48 * 3600)), ipv4(random)));
+        }
+        hashedStorage.saveAll(hits);
+        ColumnarHitIndex index = new ColumnarHitIndex(hashedStorage, true, 24, 16);
+        index.load();
+        assertThat(index.covers(now.minusHours(23), true, false)).isTrue();
+
+        hits.clear();
+        for (int i = 0; i < 200; i++) {
+            String ip = i % 2 == 0 ? "2001:db8::" + Integer.toHexString(random.nextInt(50)) : "client-" + i % 30;
+            hits.add(hit(random, now.minusSeconds(random.nextInt(3600)), IpAddresses.pack(ip)));
+        }
+        hashedStorage.saveAll(hits);
+        index.onHits(hits);
+
+        LocalDateTime start = now.minusHours(23);
+        assertThat(index.covers(start, true, false)).isFalse();
+        assertThat(index.covers(start, true, true)).isTrue();
+        assertThat(index.covers(start, false, false)).isTrue();
+        for (List<Integer> uriIds : Arrays.asList(null, SOME_URIS)) {
+            assertMatchesStorage(hashedStorage, index, start, now, uriIds, false);
+            // a few hundred distinct addresses, so their hashes do not collide
+            assertMatchesStorage(hashedStorage, index, start, now, uriIds, true);
+        }
+        hashedStorage.close();
+    }
+
+    private void assertMatchesStorage(ColumnarHitIndex index, LocalDateTime start, LocalDateTime end,
+                                      List<Integer> uriIds, boolean unique) {
+        assertMatchesStorage(storage, index, start, end, uriIds, unique);
+    }
+
+    private static void assertMatchesStorage(HitStorage storage, ColumnarHitIndex index, LocalDateTime start,
+                                             LocalDateTime end, List<Integer> uriIds, boolean unique) {
+        assertThat(sorted(index.getHitCounts(start, end, uriIds, unique)))
+                .as("unique=%s, uris=%s, %s..%s", unique, uriIds, start, end)
+                .isEqualTo(sorted(storage.getHitCounts(start, end, uriIds, unique)));
+    }
+
+    private static List<HitCount> sorted(List<HitCount> hitCounts) {
+        List<HitCount> sorted = new ArrayList<>(hitCounts);
+        sorted.sort(HitCountAccumulator.MOST_HITS_FIRST);
+        return sorted;
+    }
+
+    private static EndpointHit hit(Random random, LocalDateTime timestamp, byte[] ip) {
+        EndpointHit hit = new EndpointHit();
+        hit.setAppId(1 + random.nextInt(APPS));
+        hit.setUriId(1 + random.nextInt(URIS));
+        hit.setIp(ip);
+        hit.setTimestamp(timestamp);
+        hit.setWeight(1 + random.nextInt(3));
+        return hit;
+    }
+
+    private static byte[] ipv4(Random random) {
+        return new byte[]{10, 0, (byte) random.nextInt(4), (byte) random.nextInt(64)};
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.server.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitLogSegmentTest {
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 8;
+    private static final int COMMIT_OFFSET = 33;
+    private static final byte[] IPV4 = {10, 0, 0, 1};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedRecordsSurviveReopen() throws IOException {
+        Path file = directory.resolve("segment.log");
+        try (HitLogSegment segment = HitLogSegment.open(file, 100, 16, 4)) {
+            assertThat(segment.append(1, 2, 1000, IPV4, 1)).isEqualTo(100);
+            assertThat(segment.append(1, 3, 1001, new byte[16], 3)).isEqualTo(101);
+            assertThat(segment.append(2, 3, 1002, new byte[40], 1)).isEqualTo(102);
+        }
+
+        try (HitLogSegment segment = HitLogSegment.open(file, 100, 16, 4)) {
+            assertThat(segment.getCount()).isEqualTo(3);
+            assertThat(segment.getMinTime()).isEqualTo(1000);
+            assertThat(segment.getMaxTime()).isEqualTo(1002);
+            assertThat(scan(segment, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactly(0, 1, 2);
+            assertThat(segment.id(1)).isEqualTo(101);
+            assertThat(segment.appId(2)).isEqualTo(2);
+            assertThat(segment.uriId(1)).isEqualTo(3);
+            assertThat(segment.epochSecond(2)).isEqualTo(1002);
+            assertThat(segment.weight(1)).isEqualTo(3);
+            assertThat(segment.ip(0)).containsExactly(IPV4);
+            assertThat(segment.ip(1)).hasSize(16);
+            assertThat(segment.ip(2)).hasSize(16);
+            assertThat(segment.append(3, 4, 1003, IPV4, 1)).isEqualTo(103);
+        }
+    }
+
+    @Test
+    void recoversCommittedRecordsWrittenAfterTheLastHeaderUpdate() throws IOException {
+        Path file = directory.resolve("segment.log");
+        try (HitLogSegment segment = HitLogSegment.open(file, 1, 16, 4)) {
+            for (int i = 0; i < 5; i++) {
+                segment.append(1, 1, 1000 + i, IPV4, 1);
+            }
+        }
+        // crash after records 3 and 4 were committed but before force() stored the count
+        writeCount(file, 3);
+
+        try (HitLogSegment segment = HitLogSegment.open(file, 1, 16, 4)) {
+            assertThat(segment.getCount()).isEqualTo(5);
+            assertThat(segment.getMaxTime()).isEqualTo(1004);
+            assertThat(scan(segment, 1003, 1005)).containsExactly(3, 4);
+        }
+    }
+
+    @Test
+    void dropsTornRecordWithoutCommitMarker() throws IOException {
+        Path file = directory.resolve("segment.log");
+        try (HitLogSegment segment = HitLogSegment.open(file, 1, 16, 4)) {
+            for (int i = 0; i < 5; i++) {
+                segment.append(1, 1, 1000 + i, IPV4, 1);
+            }
+        }
+        // crash while record 3 was being written: its commit marker never reached the file
+        writeCount(file, 3);
+        writeByte(file, HEADER_SIZE + 3 * HitLogSegment.RECORD_SIZE + COMMIT_OFFSET, (byte) 0);
+
+        try (HitLogSegment segment = HitLogSegment.open(file, 1, 16, 4)) {
+            assertThat(segment.getCount()).isEqualTo(3);
+            assertThat(segment.getMaxTime()).isEqualTo(1002);
+            assertThat(segment.append(1, 1, 2000, IPV4, 1)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void scanSkipsBlocksOutsideTheRange() throws IOException {
+        Path file = directory.resolve("segment.log");
+        try (HitLogSegment segment = HitLogSegment.open(file, 1, 16, 4)) {
+            for (int i = 0; i < 4; i++) {
+                segment.append(1, 1, 100 + i, IPV4, 1);
+            }
+            for (int i = 0; i < 4; i++) {
+                segment.append(1, 1, 200 + i, IPV4, 1);
+            }
+            // rewrite record 0 behind the segment's back; its block is indexed as [100, 103]
+            writeLong(file, HEADER_SIZE + 8, 201);
+
+            assertThat(scan(segment, 200, 204)).containsExactly(4, 5, 6, 7);
+            assertThat(scan(segment, 100, 300)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+            assertThat(scan(segment, 300, 400)).isEmpty();
+        }
+    }
+
+    @Test
+    void reportsFullAtCapacity() throws IOException {
+        try (HitLogSegment segment = HitLogSegment.open(directory.resolve("segment.log"), 1, 2, 4)) {
+            segment.append(1, 1, 1000, IPV4, 1);
+            assertThat(segment.isFull()).isFalse();
+            segment.append(1, 1, 1001, IPV4, 1);
+            assertThat(segment.isFull()).isTrue();
+        }
+    }
+
+    private static List<Integer> scan(HitLogSegment segment, long from, long to) {
+        List<Integer> records = new ArrayList<>();
+        segment.scan(from, to, (s, record) -> records.add(record));
+        return records;
+    }
+
+    private static void writeCount(Path file, long count) throws IOException {
+        writeLong(file, COUNT_OFFSET, count);
+    }
+
+    private static void writeLong(Path file, long position, long value) throws IOException {
+        write(file, position, ByteBuffer.allocate(Long.BYTES).putLong(0, value));
+    }
+
+    private static void writeByte(Path file, long position, byte value) throws IOException {
+        write(file, position, ByteBuffer.wrap(new byte[]{value}));
+    }
+
+    private static void write(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.server.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.model.HitCount;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LogHitStorageTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rollsSegmentAtCapacityAndKeepsIdsContiguous() throws IOException {
+        LogHitStorage storage = open();
+        for (int i = 0; i < 4; i++) {
+            storage.save(hit(1, i));
+        }
+        assertThat(segmentFiles()).hasSize(1);
+
+        EndpointHit fifth = storage.save(hit(1, 4));
+        assertThat(fifth.getId()).isEqualTo(5);
+        assertThat(segmentFiles()).hasSize(2);
+
+        List<EndpointHit> batch = new ArrayList<>();
+        for (int i = 5; i < 10; i++) {
+            batch.add(hit(2, i));
+        }
+        storage.saveAll(batch);
+        assertThat(batch).extracting(EndpointHit::getId).containsExactly(6L, 7L, 8L, 9L, 10L);
+        assertThat(segmentFiles()).containsExactly("segment-00000000000000000001.log",
+                "segment-00000000000000000005.log", "segment-00000000000000000009.log");
+        storage.close();
+    }
+
+    @Test
+    void reopenedStorageScansAllSegmentsAndAppendsAfterThem() throws IOException {
+        LogHitStorage storage = open();
+        for (int i = 0; i < 10; i++) {
+            storage.save(hit(i < 6 ? 1 : 2, i));
+        }
+        storage.close();
+
+        LogHitStorage reopened = open();
+        List<EndpointHit> hits = new ArrayList<>();
+        reopened.streamAllHits(hits::add);
+        assertThat(hits).extracting(EndpointHit::getId)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(reopened.getFirstHitTime()).isEqualTo(START);
+        assertThat(reopened.getLastHitTime()).isEqualTo(START.plusMinutes(9));
+        assertThat(reopened.save(hit(1, 10)).getId()).isEqualTo(11);
+
+        List<HitCount> counts = reopened.getHitCounts(START, START.plusMinutes(10), null, false);
+        assertThat(counts).extracting(HitCount::getUriId, HitCount::getHits)
+                .containsExactly(tuple(1, 7L),
+                        tuple(2, 4L));
+        reopened.close();
+    }
+
+    @Test
+    void rangeQueriesSpanSegmentBoundaries() throws IOException {
+        LogHitStorage storage = open();
+        for (int i = 0; i < 10; i++) {
+            storage.save(hit(1, i));
+        }
+        List<EndpointHit> hits = new ArrayList<>();
+        storage.streamHits(START.plusMinutes(3), START.plusMinutes(6), hits::add);
+        assertThat(hits).extracting(EndpointHit::getId).containsExactly(4L, 5L, 6L);
+
+        List<HitCount> counts = storage.getHitCounts(START.plusMinutes(3), START.plusMinutes(8), List.of(1), false);
+        assertThat(counts).extracting(HitCount::getHits).containsExactly(6L);
+        storage.close();
+    }
+
+    private LogHitStorage open() throws IOException {
+        LogHitStorage storage = new LogHitStorage(directory.toString(), 4, 2, false);
+        storage.open();
+        return storage;
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static EndpointHit hit(int uriId, int minute) {
+        EndpointHit hit = new EndpointHit();
+        hit.setAppId(1);
+        hit.setUriId(uriId);
+        hit.setIp(new byte[]{10, 0, 0, (byte) minute});
+        hit.setTimestamp(START.plusMinutes(minute));
+        return hit;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.workload;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class Popularity {
+    private final ZipfDistribution distribution;
+    private final int size;
+    private final long multiplier;
+
+    public Popularity(int size, double skew) {
+        this.distribution = new ZipfDistribution(size, skew);
+        this.size = size;
+        long candidate = Math.max(1, (long) (size * 0.618));
+        while (!BigInteger.valueOf(candidate).gcd(BigInteger.valueOf(size)).equals(BigInteger.ONE)) {
+            candidate++;
+        }
+        this.multiplier = candidate;
+    }
+
+    public int sample(Random random) {
+        return id(distribution.sample(random));
+    }
+
+    public int id(int rank) {
+        return (int) (rank * multiplier % size) + 1;
+    }
+
+    public double probability(int rank) {
+        return distribution.probability(rank);
+    }
+}